@@ -2,19 +2,20 @@ package UI;
 
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.VBox;
-import javafx.stage.Stage;
 import model.*;
+import model.CustomExceptions.DuplicateLicenseException;
 
 import java.net.URL;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.ResourceBundle;
 
@@ -24,6 +25,7 @@ public class AdminDashboardController implements Initializable {
 
     // Vehicles Tab Components linked to FXML
     @FXML private TableView<Vehicle> adminVehiclesTable;
+    @FXML private TextField vehicleSearchField;
     @FXML private TableColumn<Vehicle, Integer> adminVehicleIdColumn;
     @FXML private TableColumn<Vehicle, String> adminVehicleTypeColumn;
     @FXML private TableColumn<Vehicle, String> adminVehicleModelColumn;
@@ -53,18 +55,64 @@ public class AdminDashboardController implements Initializable {
 
     @FXML private Button adminLogoutButton;
     @FXML private Label actualRevenue;
+    @FXML private CheckBox dynamicPricingCheckBox;
 
-    // This method runs automatically when the window opens
+    // Reports tab
+    @FXML private Button runReportsButton;
+    @FXML private Label reportsStatusLabel;
+    @FXML private TextArea reportsArea;
+
+    // This method runs once, when SceneManager loads the screen (on its background thread).
+    // The screen is reused for every admin login, so only the table setup happens here.
     @Override
     public void initialize(URL location, ResourceBundle resources) {
         // Configure how the table columns read data
         setupVehiclesTable();
         setupCustomersTable();
         setupBookingsTable();
+    }
+
+    // Called each time the admin logs in, on the FX thread.
+    public void startSession() {
+        vehicleSearchField.clear();
+        if (!runReportsButton.isDisabled()) {
+            reportsArea.clear();
+            reportsStatusLabel.setText("");
+        }
         handleRevenue();
+        dynamicPricingCheckBox.setSelected(DynamicPricing.isEnabled());
 
-        // Load the actual data into the tables
+        // Load the actual data into the tables on the first login, then keep them up to date from the model's
+        // change events. Later logins only pass on what changed in between.
+        boolean firstLogin = vehicleRows == null;
         loadAllData();
+        if (firstLogin) ModelEvents.subscribe(modelListener);
+        showLoadConflicts();
+    }
+
+    // Duplicates the loaders kept (emails or plates that older files allowed twice), each list shown once.
+    private int conflictsShown;
+
+    private void showLoadConflicts() {
+        List<String> conflicts = DataManager.getLoadConflicts();
+        if (conflicts.size() <= conflictsShown) return;
+        List<String> shown = conflicts.subList(conflictsShown, Math.min(conflicts.size(), conflictsShown + 10));
+        String more = conflicts.size() - conflictsShown > shown.size()
+                ? "\n... and " + (conflicts.size() - conflictsShown - shown.size()) + " more" : "";
+        conflictsShown = conflicts.size();
+        new Alert(Alert.AlertType.WARNING, "The saved data has duplicates, please fix them:\n"
+                + String.join("\n", shown) + more).show();
+    }
+
+    // Called on logout. The events keep coming, but while nobody is logged in the tables only note which rows
+    // they touch (LazyTableList.pause), the next login redraws just those.
+    public void endSession() {
+        vehicleRows.pause();
+        customersView.pause();
+        bookingsView.pause();
+        adminVehiclesTable.getSelectionModel().clearSelection();
+        customersTable.getSelectionModel().clearSelection();
+        adminBookingsTable.getSelectionModel().clearSelection();
     }
 
     // Setting up tables using setCellValueFactory
@@ -115,18 +163,81 @@ public class AdminDashboardController implements Initializable {
         loadBookings();
     }
 
+    // The tables show the model lists through LazyTableList views, nothing gets copied on a refresh.
+    // After the first load they are patched from model events (see applyChanges), no full reloads.
+    private VehicleRows vehicleRows;
+    private LazyTableList<Customer> customersView;
+    private LazyTableList<Booking> bookingsView;
+
     private void loadVehicles() {
-        // Convert the ArrayList to an ObservableList so the UI can watch it
-        java.util.Collections.sort(Vehicle.allVehicles);
-        adminVehiclesTable.setItems(FXCollections.observableArrayList(Vehicle.allVehicles));
+        if (vehicleRows == null) {
+            vehicleRows = new VehicleRows();
+            adminVehiclesTable.setItems(vehicleRows.getView());
+            // Search as you type, each key looks the text up in the VehicleSearchIndex
+            vehicleSearchField.textProperty().addListener((observable, oldText, text) -> vehicleRows.setFilter(text));
+        } else {
+            vehicleRows.resume();
+        }
     }
 
     private void loadCustomers() {
-        customersTable.setItems(FXCollections.observableArrayList(Customer.customers));
+        if (customersView == null) {
+            customersView = new LazyTableList<>(Customer.customers);
+            customersTable.setItems(customersView);
+        } else {
+            customersView.resume();
+        }
     }
 
     private void loadBookings() {
-        adminBookingsTable.setItems(FXCollections.observableArrayList(Booking.bookings));
+        if (bookingsView == null) {
+            bookingsView = new LazyTableList<>(Booking.bookings);
+            adminBookingsTable.setItems(bookingsView);
+        } else {
+            bookingsView.resume();
+        }
+    }
+
+    // Model events, delivered in batches on the FX thread. Patches the affected rows and the revenue.
+    private final ModelEvents.Listener modelListener = this::applyChanges;
+
+    private void applyChanges(List<ModelEvents.ModelEvent> events) {
+        boolean bookingsChanged = false;
+        List<Booking> statusChanged = new ArrayList<>();
+
+        for (ModelEvents.ModelEvent event : events) {
+            Object entity = event.getEntity();
+            if (entity instanceof Vehicle) {
+                Vehicle vehicle = (Vehicle) entity;
+                switch (event.getKind()) {
+                    case ADDED: vehicleRows.add(vehicle, event.getIndex()); break;
+                    case REMOVED: vehicleRows.remove(vehicle, event.getIndex()); break;
+                    case STATUS_CHANGED: vehicleRows.update(vehicle); break;
+                }
+            } else if (entity instanceof Booking) {
+                Booking booking = (Booking) entity;
+                switch (event.getKind()) {
+                    case ADDED: bookingsView.inserted(event.getIndex()); break;
+                    case REMOVED: bookingsView.removed(event.getIndex(), booking); break;
+                    case STATUS_CHANGED: statusChanged.add(booking); break;
+                }
+                vehicleRows.update(booking.getBookedVehicle()); // Its "Rented" status may have changed
+                bookingsChanged = true;
+            } else if (entity instanceof Customer && event.getKind() == ModelEvents.Kind.ADDED) {
+                customersView.inserted(event.getIndex());
+            }
+        }
+
+        // Finding a booking's row means a search, for a big batch (many expiries at once) redraw them all instead
+        if (statusChanged.size() > 32) {
+            bookingsView.updated(0, bookingsView.size());
+        } else {
+            for (Booking booking : statusChanged) {
+                int index = Booking.bookings.indexOf(booking);
+                if (index >= 0) bookingsView.updated(index, index + 1);
+            }
+        }
+        if (bookingsChanged) handleRevenue();
     }
 
     // Handling buttons.
@@ -185,23 +296,22 @@ public class AdminDashboardController implements Initializable {
                 // Validate inputs
                 if (model.isEmpty() || license.isEmpty()) throw new Exception("Empty fields");
 
-                // Check if license already exists
-                if (Vehicle.allVehicles.stream().anyMatch(v -> v.getLicenseNumber().equals(license))) {
-                    throw new Exception("License already exists");
-                }
-
                 // Create the correct object based on type
-                if ("Car".equals(type)) new Car(model, license, rate, optionBox.isSelected());
-                else if ("Bike".equals(type)) new Bike(model, license, rate, optionBox.isSelected());
-                else if ("Van".equals(type)) new Van(model, license, rate, Double.parseDouble(capacityField.getText()));
+                // (a plate that is already in the fleet is refused by the constructor, see Vehicle.byLicense)
+                Vehicle added = null;
+                if ("Car".equals(type)) added = new Car(model, license, rate, optionBox.isSelected());
+                else if ("Bike".equals(type)) added = new Bike(model, license, rate, optionBox.isSelected());
+                else if ("Van".equals(type)) added = new Van(model, license, rate, Double.parseDouble(capacityField.getText()));
 
                 // Success
                 showAlert("Vehicle added successfully!");
-                loadVehicles(); // Refresh table
-                DataManager.saveAllData(); // Save to CSV immediately
+                // The table picks the new row up from the model event
+                if (added != null) DataManager.logVehicleAdded(added); // Append to the journal immediately
 
             } catch (NumberFormatException e) {
                 showAlert("Invalid number format for Rate or Capacity.");
+            } catch (DuplicateLicenseException e) {
+                showAlert("License already exists");
             } catch (Exception e) {
                 showAlert("Error: " + e.getMessage());
             }
@@ -219,18 +329,17 @@ public class AdminDashboardController implements Initializable {
             return;
         }
 
-        // Business Rule: Cannot delete a car that is currently out on rent
-        if (!selected.getIsAvailable()) {
-            showAlert("Cannot remove rented vehicle!");
+        // Business Rule: Cannot delete a car that is currently out on rent or reserved for later
+        if (selected.hasUpcomingBookings()) {
+            showAlert("Cannot remove a rented or reserved vehicle!");
             return;
         }
 
         // Ask for confirmation before deleting
         Alert confirm = new Alert(Alert.AlertType.CONFIRMATION, "Delete " + selected.getModel() + "?");
         if (confirm.showAndWait().orElse(ButtonType.CANCEL) == ButtonType.OK) {
-            Vehicle.allVehicles.remove(selected); // Remove from list
-            loadVehicles(); // Refresh table
-            DataManager.saveAllData(); // Save to CSV immediately
+            Vehicle.removeVehicle(selected); // Remove from list (the table drops the row on the model event)
+            DataManager.logVehicleRemoved(selected); // Append to the journal immediately
         }
     }
 
@@ -242,16 +351,57 @@ public class AdminDashboardController implements Initializable {
     // Returns to the Login Screen
     @FXML
     void handleLogout(ActionEvent event) {
+        endSession(); // This screen is going away until the next admin login
         try {
-            Parent root = FXMLLoader.load(getClass().getResource("Dashboard.fxml"));
-            Stage stage = (Stage) adminLogoutButton.getScene().getWindow();
-            stage.setScene(new Scene(root, 1200, 800));
-            stage.setMaximized(true);
+            SceneManager.showLogin();
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
 
+    // Turns demand based pricing on or off, only affects bookings made from now on. Kept across restarts.
+    @FXML
+    void handleDynamicPricing(ActionEvent event) {
+        DynamicPricing.setEnabled(dynamicPricingCheckBox.isSelected());
+        DataManager.saveSettings();
+    }
+
+    // Runs the fleet reports on a background thread, they go over the whole booking history.
+    @FXML
+    void handleRunReports(ActionEvent event) {
+        // Copy the lists here on the FX thread, the reports then only read the copies
+        FleetAnalytics.Snapshot snapshot = FleetAnalytics.Snapshot.take();
+
+        Task<List<FleetAnalytics.Report>> task = new Task<>() {
+            @Override
+            protected List<FleetAnalytics.Report> call() {
+                return FleetAnalytics.runAll(snapshot);
+            }
+        };
+        task.setOnSucceeded(e -> {
+            StringBuilder text = new StringBuilder();
+            long total = 0;
+            for (FleetAnalytics.Report report : task.getValue()) {
+                text.append(report).append("\n\n");
+                total += report.getElapsedMillis();
+            }
+            reportsArea.setText(text.toString());
+            reportsStatusLabel.setText(snapshot.getBookingCount() + " bookings, " + snapshot.getVehicleCount() +
+                    " vehicles, done in " + total + " ms");
+            runReportsButton.setDisable(false);
+        });
+        task.setOnFailed(e -> {
+            reportsStatusLabel.setText("Reports failed: " + task.getException().getMessage());
+            runReportsButton.setDisable(false);
+        });
+
+        runReportsButton.setDisable(true);
+        reportsStatusLabel.setText("Running...");
+        Thread worker = new Thread(task, "fleet-reports");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
     // Helper method to show simple popup messages
     private void showAlert(String message) {
         new Alert(Alert.AlertType.INFORMATION, message).showAndWait();
@@ -259,13 +409,18 @@ public class AdminDashboardController implements Initializable {
 
     void handleRevenue()
     {
-        double calculatedRevenue = 0;
-        for(Booking book:Booking.bookings)
-        {
-            String getCost = book.getCostFormatted();
-            getCost = getCost.substring(1, getCost.length()-1);
-            calculatedRevenue += Double.parseDouble(getCost);
+        // The ledger keeps the total up to date, nothing to add up here
+        actualRevenue.setText(PricingEngine.format(RevenueLedger.getTotalCents()));
+
+        // Breakdown shown when hovering over the total
+        StringBuilder breakdown = new StringBuilder();
+        for (VehicleType type : VehicleType.values()) {
+            breakdown.append(type.getLabel()).append("s: ")
+                    .append(PricingEngine.format(RevenueLedger.getCentsFor(type))).append("\n");
         }
-        actualRevenue.setText(String.format("$%.2f", calculatedRevenue));
+        breakdown.append("Active: ").append(PricingEngine.format(RevenueLedger.getActiveCents())).append("\n");
+        breakdown.append("Completed: ").append(PricingEngine.format(RevenueLedger.getCompletedCents())).append("\n");
+        breakdown.append("Starting today: ").append(PricingEngine.format(RevenueLedger.getCentsOn(LocalDate.now())));
+        actualRevenue.setTooltip(new Tooltip(breakdown.toString()));
     }
 }
\ No newline at end of file
@@ -5,17 +5,15 @@ import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
-import javafx.stage.Stage;
+import javafx.scene.layout.VBox;
 import model.*;
 
 import java.net.URL;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 import java.util.ResourceBundle;
 
@@ -33,6 +31,7 @@ public class CustomerDashboardController implements Initializable {
 
     // Vehicle Table Setup
     @FXML private TableView<Vehicle> vehiclesTable;
+    @FXML private TextField vehicleSearchField;
     @FXML private TableColumn<Vehicle, String> vehicleIdColumn;
     @FXML private TableColumn<Vehicle, String> vehicleTypeColumn;
     @FXML private TableColumn<Vehicle, String> vehicleModelColumn;
@@ -52,8 +51,8 @@ public class CustomerDashboardController implements Initializable {
     // Tracks who is currently logged in
     private Customer currentCustomer;
 
-     // Called automatically when the FXML file is loaded.
-     // We use this to configure the table columns immediately.
+     // Called once, when SceneManager loads the screen (on its background thread).
+     // We use this to configure the table columns, the screen is then reused for every customer login.
     @Override
     public void initialize(URL location, ResourceBundle resources) {
         setupVehiclesTable();
@@ -62,13 +61,17 @@ public class CustomerDashboardController implements Initializable {
 
      //Receives the logged-in customer data from the Login screen.
      // Updates the welcome message and loads the specific data for this user.
-    public void setCustomer(Customer customer) {
+    public void startSession(Customer customer) {
         this.currentCustomer = customer;
         welcomeLabel.setText("Welcome, " + customer.getName() + "!");
+        vehicleSearchField.clear();
 
-        // Refresh the data in the tables
+        // Refresh the data in the tables, then keep them up to date from the model's change events
+        // (subscribed on the first login, the vehicle rows keep following them between logins)
+        boolean firstLogin = vehicleRows == null;
         loadVehicles();
         loadBookings();
+        if (firstLogin) ModelEvents.subscribe(modelListener);
     }
 
 
@@ -96,32 +99,85 @@ public class CustomerDashboardController implements Initializable {
         bookingStatusColumn.setCellValueFactory(new PropertyValueFactory<>("statusFormatted"));
     }
 
-     // Filters the global list of vehicles to show ONLY available ones.
+     // Shows the whole fleet cheapest first, the status column tells if a vehicle is rented today.
+     // Vehicles rented today can still be reserved for later dates, the booking checks the calendar.
+     // The query reads the rate-ordered index, so there is nothing to sort here.
     private void loadVehicles() {
-        ObservableList<Vehicle> availableVehicles = FXCollections.observableArrayList();
-
-        // Loop through all vehicles in the system
-        for (Vehicle vehicle : Vehicle.allVehicles) {
-            if (vehicle.getIsAvailable()) {
-                availableVehicles.add(vehicle);
-            }
+        if (vehicleRows == null) {
+            vehicleRows = new VehicleRows();
+            vehiclesTable.setItems(vehicleRows.getView());
+            // Search as you type, each key looks the text up in the VehicleSearchIndex
+            vehicleSearchField.textProperty().addListener((observable, oldText, text) -> vehicleRows.setFilter(text));
+        } else {
+            vehicleRows.resume();
         }
-        java.util.Collections.sort(availableVehicles);
-        vehiclesTable.setItems(availableVehicles);
     }
 
-     // Filters the global list of bookings to show ONLY this customer's history.
+     // Shows ONLY this customer's bookings, active ones first, then the history.
+     // The customer keeps its own bookings, so this doesn't look at anyone else's.
     private void loadBookings() {
-        ObservableList<Booking> customerBookings = FXCollections.observableArrayList();
+        // Both under the customer's lock, so the active block is the one of this list
+        synchronized (currentCustomer) {
+            customerBookings = FXCollections.observableArrayList(currentCustomer.getBookings());
+            activeRows = currentCustomer.getActiveBookings().size();
+        }
+        bookingsTable.setItems(customerBookings);
+    }
 
-        // Loop through all bookings in the system
-        for (Booking booking : Booking.bookings) {
-            // Check if this booking belongs to the current user
-            if (booking.getCustomer().equals(currentCustomer)) {
-                customerBookings.add(booking);
+    // Rows of the two tables, patched from model events after the first load
+    private VehicleRows vehicleRows;
+    private ObservableList<Booking> customerBookings;
+    // The first activeRows bookings are the active block, the history comes after it
+    private int activeRows;
+
+    // Model events, delivered in batches on the FX thread (another customer booking, an expiry, an admin change...).
+    private final ModelEvents.Listener modelListener = this::applyChanges;
+
+    private void applyChanges(List<ModelEvents.ModelEvent> events) {
+        for (ModelEvents.ModelEvent event : events) {
+            Object entity = event.getEntity();
+            if (entity instanceof Vehicle) {
+                Vehicle vehicle = (Vehicle) entity;
+                switch (event.getKind()) {
+                    case ADDED: vehicleRows.add(vehicle, event.getIndex()); break;
+                    case REMOVED: vehicleRows.remove(vehicle, event.getIndex()); break;
+                    case STATUS_CHANGED: vehicleRows.update(vehicle); break;
+                }
+            } else if (entity instanceof Booking) {
+                Booking booking = (Booking) entity;
+                vehicleRows.update(booking.getBookedVehicle()); // Its "Rented" status may have changed
+                if (booking.getCustomer() != currentCustomer) continue;
+                int index = customerBookings.indexOf(booking);
+                switch (event.getKind()) {
+                    case ADDED:
+                        if (index < 0) insertBooking(booking);
+                        break;
+                    case REMOVED:
+                        if (index < 0) break;
+                        if (index < activeRows) activeRows--;
+                        customerBookings.remove(index);
+                        break;
+                    case STATUS_CHANGED:
+                        if (index < 0) break;
+                        if ((index < activeRows) == booking.isActive()) {
+                            // Setting the same element again makes the table redraw that row
+                            customerBookings.set(index, booking);
+                        } else {
+                            // Completed (or active again), it moves to the other block like in the customer's lists
+                            if (index < activeRows) activeRows--;
+                            customerBookings.remove(index);
+                            insertBooking(booking);
+                        }
+                        break;
+                }
             }
         }
-        bookingsTable.setItems(customerBookings);
+    }
+
+    // An active booking goes at the end of the active block, any other one at the end of the history.
+    private void insertBooking(Booking booking) {
+        if (booking.isActive()) customerBookings.add(activeRows++, booking);
+        else customerBookings.add(booking);
     }
 
      // Logic for the "Book Vehicle" button.
@@ -137,26 +193,48 @@ public class CustomerDashboardController implements Initializable {
             return;
         }
 
-        if (!selectedVehicle.getIsAvailable()) {
-            showAlert("Selected vehicle is not available!");
-            return;
-        }
-
-        // Create a Popup Dialog to ask for rental duration
-        TextInputDialog dialog = new TextInputDialog("1"); // Default value is "1"
+        // Create a Popup Dialog to ask for the start date and rental duration
+        Dialog<ButtonType> dialog = new Dialog<>();
         dialog.setTitle("Book Vehicle");
         dialog.setHeaderText("Book " + selectedVehicle.getModel());
-        dialog.setContentText("Enter number of days:");
+
+        DatePicker startPicker = new DatePicker(LocalDate.now()); // Defaults to today
+        TextField daysField = new TextField("1");                 // Default value is "1"
+        Label priceLabel = new Label();
+
+        // Show the price as the user types. Quotes are table lookups (see PricingEngine), so it's fine on every key press.
+        Runnable updatePrice = () -> {
+            try {
+                int days = Integer.parseInt(daysField.getText().trim());
+                LocalDate start = startPicker.getValue();
+                if (days <= 0 || start == null) {
+                    priceLabel.setText("");
+                    return;
+                }
+                long price = PricingEngine.quote(selectedVehicle, start, start.plusDays(days));
+                priceLabel.setText("Price: " + PricingEngine.format(price) + " (tax included)");
+            } catch (NumberFormatException e) {
+                priceLabel.setText("");
+            }
+        };
+        startPicker.valueProperty().addListener((obs, oldValue, newValue) -> updatePrice.run());
+        daysField.textProperty().addListener((obs, oldValue, newValue) -> updatePrice.run());
+        updatePrice.run();
+
+        dialog.getDialogPane().setContent(new VBox(10,
+                new Label("Start date:"), startPicker,
+                new Label("Enter number of days:"), daysField,
+                priceLabel));
+        dialog.getDialogPane().getButtonTypes().addAll(ButtonType.OK, ButtonType.CANCEL);
 
         // Show the dialog and wait for response
-        // Optional<String> handles the case where user might click "Cancel" (returning empty)
-        Optional<String> result = dialog.showAndWait();
+        Optional<ButtonType> result = dialog.showAndWait();
 
-        // If user clicked OK (result is present)
-        if (result.isPresent()) {
+        // If user clicked OK
+        if (result.isPresent() && result.get() == ButtonType.OK) {
             try {
                 // Parse the input string to a number
-                int days = Integer.parseInt(result.get());
+                int days = Integer.parseInt(daysField.getText().trim());
 
                 if (days <= 0) {
                     showAlert("Please enter a valid number of days!");
@@ -164,28 +242,27 @@ public class CustomerDashboardController implements Initializable {
                 }
 
                 // Calculate dates
-                LocalDate startDate = LocalDate.now();
+                LocalDate startDate = startPicker.getValue();
+                if (startDate == null) {
+                    showAlert("Please pick a start date!");
+                    return;
+                }
                 LocalDate endDate = startDate.plusDays(days);
 
                 // Perform the booking logic (updates model)
-                currentCustomer.bookVehicle(selectedVehicle, startDate, endDate);
-
-                // Calculate cost for the success message
-                double cost = selectedVehicle.calculateRentalCost(days, selectedVehicle.getDailyRate());
+                Booking booking = currentCustomer.bookVehicle(selectedVehicle, startDate, endDate);
 
                 // Show Success Message
                 showAlert("Booking Confirmed!\n" +
                         "Vehicle: " + selectedVehicle.getModel() + "\n" +
                         "Duration: " + days + " days\n" +
                         "Tax Rate: " + selectedVehicle.getTaxRate() +"\n"+
-                        "Total Cost: $" + cost + "\n" +
+                        "Total Cost: " + booking.getCostFormatted() + "\n" +
                         "Start Date: " + startDate + "\n" +
                         "End Date: " + endDate);
 
-                // Refresh UI and Save to File/DB
-                loadVehicles();
-                loadBookings();
-                DataManager.saveAllData();
+                // Append the booking to the journal, the tables update from the model event
+                DataManager.logBookingAdded(booking);
 
             } catch (NumberFormatException e) {
                 showAlert("Please enter a valid number!"); // Caught if user typed "abc"
@@ -226,35 +303,38 @@ public class CustomerDashboardController implements Initializable {
         // If User clicked OK
         if (result.isPresent() && result.get() == ButtonType.OK) {
 
-            // Make the car available again
-            selectedBooking.getBookedVehicle().setIsAvailable(true);
-
-            // Remove the booking from the system list
-            Booking.bookings.remove(selectedBooking);
+            // Remove the booking from the system list, this also frees its dates in the vehicle's calendar
+            BookingEngine.cancel(selectedBooking);
 
             showAlert("Booking cancelled successfully!\nVehicle is now available for other customers.");
 
-            // Refresh UI
-            loadVehicles();
-            loadBookings();
-            DataManager.saveAllData();
+            // The tables update from the model event
+            DataManager.logBookingCancelled(selectedBooking);
         }
     }
 
      // Logs the user out and returns to the main Dashboard/Login screen.
     @FXML
     void handleLogout(ActionEvent event) {
+        endSession(); // This screen is going away until the next customer logs in
         try {
-            Parent root = FXMLLoader.load(getClass().getResource("Dashboard.fxml"));
-            Stage stage = (Stage) logoutButton.getScene().getWindow();
-            stage.setScene(new Scene(root, 1200, 800));
-            stage.setTitle("Car Rental Management System");
-            stage.setMaximized(true);
+            SceneManager.showLogin();
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
 
+     // Called on logout. Drops the customer so the next session starts clean.
+     // The vehicle rows keep following the events but only redraw at the next login (see LazyTableList.pause).
+    public void endSession() {
+        vehicleRows.pause();
+        currentCustomer = null;
+        customerBookings.clear();
+        activeRows = 0;
+        vehiclesTable.getSelectionModel().clearSelection();
+        bookingsTable.getSelectionModel().clearSelection();
+    }
+
      // Helper method to reduce code duplication for simple popup messages.
     private void showAlert(String message) {
         Alert alert = new Alert(Alert.AlertType.INFORMATION);
@@ -1,5 +1,6 @@
 package UI;
 
+import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -8,10 +9,14 @@ import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.PasswordField;
+import javafx.scene.control.ProgressBar;
 import javafx.scene.control.TextField;
 import javafx.stage.Stage;
 import model.*;
 
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+
 // Controller class for the Main Login Dashboard.
 public class DashboardController {
 
@@ -21,6 +26,18 @@ public class DashboardController {
     @FXML private Button loginButton;
     @FXML private Button signupButton;
     @FXML private Label statusLabel; // Used to show error messages .
+    @FXML private ProgressBar loadingBar;   // Startup load progress, hidden once everything is loaded
+    @FXML private Label loadingLabel;
+
+    // Shows the progress of the background startup load under the login form.
+    public void showLoading(StartupLoader loader) {
+        loadingBar.progressProperty().bind(loader.progressProperty());
+        loadingLabel.textProperty().bind(loader.messageProperty());
+        loadingBar.visibleProperty().bind(loader.runningProperty());
+        loadingBar.managedProperty().bind(loader.runningProperty());
+        loadingLabel.visibleProperty().bind(loader.runningProperty());
+        loadingLabel.managedProperty().bind(loader.runningProperty());
+    }
 
     // Logic for the "Login" button.
     // Determines if the user is an Admin or a Customer and routes them accordingly.
@@ -40,33 +57,71 @@ public class DashboardController {
         // Note: Admin credentials are hardcoded for simplicity in this project context.
         if (username.equals("admin") && password.equals("1234")) {
             statusLabel.setText("Admin Login Success. Loading Admin Dashboard...");
-            loadAdminDashboard();
+            // The admin dashboard shows the whole fleet and booking history, so it waits for the startup load to finish
+            waitFor(StartupLoader::afterAll, this::loadAdminDashboard);
             return; // Exit method so we don't check for customers
         }
 
-        // Check for Customer Login
-        // We iterate through the global list of customers loaded from the CSV.
-        for (Customer customer : Customer.customers) {
-            // Check username AND verify password using the Account method
-            if (customer.getAccount().getUsername().equals(username) &&
-                    customer.getAccount().checkPassword(password)) {
-
-                statusLabel.setText("Customer Login Success. Loading Customer Dashboard...");
+        // Customers can only be checked once the accounts are loaded, usually they already are.
+        if (!StartupLoader.isLoaded()) statusLabel.setText("Loading accounts...");
+        waitFor(StartupLoader::afterAccounts, () -> loginCustomer(username, password));
+    }
 
-                // Load the customer screen and pass the specific customer object
-                loadCustomerDashboard(customer);
+    private void loginCustomer(String username, String password) {
+        // Check for Customer Login
+        // AuthService finds the username in its index and checks the password hash on its own worker threads,
+        // hashing takes a moment and the window shouldn't freeze meanwhile.
+        statusLabel.setText("Checking...");
+        setButtonsDisabled(true);
+        AuthService.login(username, password).whenComplete((customer, error) -> Platform.runLater(() -> {
+            setButtonsDisabled(false);
+            if (error != null) {
+                statusLabel.setText(causeOf(error).getMessage());
                 return;
             }
-        }
+            if (customer == null) {
+                statusLabel.setText("Invalid username or password!");
+                return;
+            }
+
+            statusLabel.setText("Customer Login Success. Loading Customer Dashboard...");
+
+            // Load the customer screen and pass the specific customer object
+            // (once the vehicles and bookings are loaded too, the dashboard lists them)
+            waitFor(StartupLoader::afterAll, () -> loadCustomerDashboard(customer));
+        }));
+    }
 
-        // If loop finishes without finding a match:
-        statusLabel.setText("Invalid username or password!");
+    // CompletableFuture wraps what went wrong in a CompletionException.
+    static Throwable causeOf(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private void setButtonsDisabled(boolean disabled) {
+        loginButton.setDisable(disabled);
+        signupButton.setDisable(disabled);
+    }
+
+    // Runs 'action' through one of the StartupLoader waits. The buttons are disabled meanwhile,
+    // so clicking Login again while the data is still loading doesn't open the dashboard twice.
+    private void waitFor(Consumer<Runnable> wait, Runnable action) {
+        setButtonsDisabled(true);
+        wait.accept(() -> {
+            setButtonsDisabled(false);
+            action.run();
+        });
     }
 
     // Logic for the "Sign Up" button.
     // Opens a separate popup window for registration.
+    // The dialog adds a customer, which shouldn't happen while the loader thread is still filling the lists.
     @FXML
     void handleSignup(ActionEvent event) {
+        if (!StartupLoader.isLoaded()) statusLabel.setText("Loading data, please wait...");
+        waitFor(StartupLoader::afterAll, this::openSignupDialog);
+    }
+
+    private void openSignupDialog() {
         try {
             Parent root = FXMLLoader.load(getClass().getResource("SignupDialog.fxml"));
             Stage signupStage = new Stage(); // Create a new window (Stage)
@@ -80,47 +135,38 @@ public class DashboardController {
         }
     }
 
-    // Switches the scene to the Admin Dashboard
+    // Clears the form for the next person, called when someone logs out.
+    public void resetSession() {
+        usernameField.clear();
+        passwordField.clear();
+        statusLabel.setText("");
+        usernameField.requestFocus();
+    }
+
+    // Switches the window to the Admin Dashboard (loaded once, see SceneManager)
     private void loadAdminDashboard() {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("AdminDashboard.fxml"));
-            Parent root = loader.load();
-
-            // Get the current window (Stage) from the login button
-            Stage stage = (Stage) loginButton.getScene().getWindow();
-
-            // Replace the scene content
-            stage.setScene(new Scene(root, 1200, 800));
-            stage.setTitle("Admin Dashboard - Car Rental System");
-            stage.setMaximized(true);
+            AdminDashboardController controller = SceneManager.show(SceneManager.Screen.ADMIN);
+            controller.startSession();
         } catch (Exception e) {
             statusLabel.setText("Error loading admin dashboard!");
             e.printStackTrace();
         }
     }
 
-    // Switches the scene to the Customer Dashboard
+    // Switches the window to the Customer Dashboard
     // This method passes data (the logged-in customer) to the next controller.
     private void loadCustomerDashboard(Customer customer) {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("CustomerDashboard.fxml"));
-            Parent root = loader.load();
-
-            // Get access to the controller of the new screen
-            CustomerDashboardController controller = loader.getController();
+            CustomerDashboardController controller = SceneManager.show(SceneManager.Screen.CUSTOMER);
 
             // Pass the specific customer object to it
             // This ensures the dashboard knows *who* is logged in.
-            controller.setCustomer(customer);
-
-            // Switch the scene
-            Stage stage = (Stage) loginButton.getScene().getWindow();
-            stage.setScene(new Scene(root, 1200, 800));
-            stage.setTitle("Customer Dashboard - " + customer.getName());
-            stage.setMaximized(true);
+            controller.startSession(customer);
+            SceneManager.setTitle("Customer Dashboard - " + customer.getName());
         } catch (Exception e) {
             statusLabel.setText("Error: File 'CustomerDashboard.fxml' not found!");
             e.printStackTrace();
         }
     }
-}
\ No newline at end of file
+}
@@ -1,6 +1,7 @@
 package UI;
 
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
@@ -14,27 +15,17 @@ public class JavaFx extends Application {
     @Override
     public void start(Stage primaryStage) throws Exception {
 
-        // Before showing any UI, we load the saved data from CSV files.
-        // This ensures the system resumes exactly where the user left off.
-        DataManager.loadAllData();
+        // Model change events reach the dashboards in batches, once per FX pulse, on the FX thread.
+        ModelEvents.setDispatcher(Platform::runLater);
 
-        // Check for any bookings that have expired (where today > end date).
-        // This automatically marks them as completed and returns the vehicles.
-        Booking.checkExpiry();
+        // Load the Login Screen (Dashboard.fxml) first, the saved data loads in the background behind it.
+        FXMLLoader loader = new FXMLLoader(getClass().getResource("Dashboard.fxml"));
+        Parent root = loader.load();
+        DashboardController loginController = loader.getController();
 
-        // Save the updated state immediately (in case checkExpiry made changes).
-        DataManager.saveAllData();
-
-        // If the system is empty (for example, first time running the app),
-        // we populate it with default data so the user isn't staring at a blank screen.
-        if (Vehicle.allVehicles.isEmpty()) {
-            setupInitialData();
-            // Save this new initial data so it persists for the next run
-            DataManager.saveAllData();
-        }
-
-        // Load the Login Screen (Dashboard.fxml)
-        Parent root = FXMLLoader.load(getClass().getResource("Dashboard.fxml"));
+        StartupLoader startupLoader = new StartupLoader(this::setupInitialData);
+        loginController.showLoading(startupLoader);
+        startupLoader.start();
 
         // Configure the main window (Stage)
         Scene scene = new Scene(root, 1200, 800);
@@ -44,16 +35,35 @@ public class JavaFx extends Application {
         primaryStage.setMaximized(true); // Start full screen
         primaryStage.show();
 
+        // From now on screens are switched inside this one Scene, the dashboards load in the background meanwhile
+        SceneManager.start(primaryStage, scene, root, loginController);
+        SceneManager.preload();
+
         // Ensure data is saved automatically when the user exits.
+        // This writes a fresh snapshot and folds the journal into it, then waits for the background writer to finish.
+        // Closing while the startup load is still running skips the snapshot, it would overwrite the files with half the data.
+        // The flush always runs: logins are allowed during the load and their journal records (e.g. a password
+        // rehash) are still waiting in the writer, which is a daemon thread and wouldn't finish them on its own.
         primaryStage.setOnCloseRequest(e -> {
             System.out.println("Application closing... Saving data.");
-            DataManager.saveAllData();
+            if (StartupLoader.isLoaded()) DataManager.saveAllData();
+            DataManager.flush();
+            System.out.println("Persistence " + DataManager.getPersistence().getStatistics());
         });
     }
 
     // Helper method to create default data for a fresh installation.
     private void setupInitialData() {
         System.out.println("First run detected. Setting up initial data...");
+        try {
+            createDefaultData();
+        } catch (CustomExceptions.DuplicateKeyException e) {
+            // Only possible if some of it was loaded after all, the rest is still usable
+            System.err.println("Error setting up initial data: " + e.getMessage());
+        }
+    }
+
+    private void createDefaultData() throws CustomExceptions.DuplicateKeyException {
 
         // Create the Default Admin Account
         // Credentials: admin / 1234
@@ -71,11 +81,11 @@ public class JavaFx extends Application {
 
         // Add Default Customers for testing
         // Customer 1: ahmed / pass
-        Account customer1 = new Account("ahmed", "pass", 'c');
+        Account customer1 = new Account("ahmed", AuthService.hash("pass"), 'c');
         new Customer("Ahmed Ali", "ahmed@gmail.com", customer1);
 
         // Customer 2: sara / 123
-        Account customer2 = new Account("sara", "123", 'c');
+        Account customer2 = new Account("sara", AuthService.hash("123"), 'c');
         new Customer("Sara Mohamed", "sara@yahoo.com", customer2);
     }
 
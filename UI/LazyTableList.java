@@ -0,0 +1,158 @@
+package UI;
+
+import javafx.collections.ObservableListBase;
+
+import java.util.Collections;
+import java.util.List;
+
+// Read-only ObservableList for a TableView that shows one of the model lists without copying it.
+// FXCollections.observableArrayList(list) copies every element on every refresh, with hundreds of thousands of
+// bookings that's a lot of work just to redraw a table. This view reads straight from the model list instead:
+// the TableView only asks for the rows it has on screen, so only those are ever looked at.
+//
+// The model list doesn't tell anyone when it changes, so the controller tells the view what changed
+// (appended, removed, updated) and the view passes exactly that range on to the table.
+// Between logins nobody looks at the table, so the controller pauses the view: the changes keep coming in but the
+// view only notes which rows they touched, and resume() passes on that one range at the next login.
+//
+// The view is read-only, so clicking a column header doesn't re-sort the table, rows stay in the model list's order.
+public class LazyTableList<E> extends ObservableListBase<E> {
+
+    private List<? extends E> source;
+    // Size the table was last told about, kept separately so it always matches the changes we reported
+    private int size;
+
+    // While paused: the size the changes since pause() add up to, and the rows they touched [dirtyFrom, dirtyTo)
+    private boolean paused;
+    private int pendingSize;
+    private int dirtyFrom = Integer.MAX_VALUE;
+    private int dirtyTo;
+
+    public LazyTableList(List<? extends E> source) {
+        this.source = source;
+        this.size = source.size();
+    }
+
+    @Override
+    public E get(int index) {
+        if (index >= size) throw new IndexOutOfBoundsException(index);
+        return source.get(index);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    // Shows a different list, e.g. a new query result. Reported as one replacement of everything.
+    public void setSource(List<? extends E> newSource) {
+        source = newSource;
+        if (paused) {
+            touched(0, Math.max(pendingSize, newSource.size()));
+            pendingSize = newSource.size();
+            return;
+        }
+        int oldSize = size;
+        size = newSource.size();
+        beginChange();
+        nextReplace(0, size, unknownItems(oldSize));
+        endChange();
+    }
+
+    // New elements were added at the end of the model list.
+    public void appended() {
+        if (paused) {
+            int newSize = source.size();
+            touched(pendingSize, newSize);
+            pendingSize = Math.max(pendingSize, newSize);
+            return;
+        }
+        int oldSize = size;
+        size = source.size();
+        if (size <= oldSize) return;
+        beginChange();
+        nextAdd(oldSize, size);
+        endChange();
+    }
+
+    // One element was inserted into the model list at 'index'.
+    public void inserted(int index) {
+        if (paused) {
+            pendingSize++;
+            touched(index, pendingSize); // The rows after it moved down one
+            return;
+        }
+        size++;
+        beginChange();
+        nextAdd(index, index + 1);
+        endChange();
+    }
+
+    // 'item' was removed from the model list at 'index'.
+    public void removed(int index, E item) {
+        if (paused) {
+            touched(index, pendingSize); // The rows after it moved up one
+            pendingSize--;
+            return;
+        }
+        size--;
+        beginChange();
+        nextRemove(index, item);
+        endChange();
+    }
+
+    // The rows [from, to) changed (e.g. a booking's status), the table redraws just those.
+    public void updated(int from, int to) {
+        if (paused) {
+            touched(from, to);
+            return;
+        }
+        beginChange();
+        for (int i = Math.max(0, from); i < Math.min(to, size); i++) {
+            nextUpdate(i);
+        }
+        endChange();
+    }
+
+    // Called on logout: from now on the changes are only noted, the table isn't told.
+    public void pause() {
+        if (paused) return;
+        paused = true;
+        pendingSize = size;
+    }
+
+    // Called on login: tells the table about the rows that changed since pause(), nothing if nothing did.
+    public void resume() {
+        if (!paused) return;
+        paused = false;
+        int oldSize = size;
+        int newSize = pendingSize;
+        int from = Math.max(0, dirtyFrom);
+        int to = Math.min(dirtyTo, Math.min(oldSize, newSize));
+        dirtyFrom = Integer.MAX_VALUE;
+        dirtyTo = 0;
+        if (from >= to && oldSize == newSize) return;
+
+        size = newSize;
+        beginChange();
+        for (int i = from; i < to; i++) {
+            nextUpdate(i);
+        }
+        if (newSize > oldSize) {
+            nextAdd(oldSize, newSize);
+        } else if (newSize < oldSize) {
+            nextRemove(newSize, unknownItems(oldSize - newSize));
+        }
+        endChange();
+    }
+
+    private void touched(int from, int to) {
+        dirtyFrom = Math.min(dirtyFrom, from);
+        dirtyTo = Math.max(dirtyTo, to);
+    }
+
+    // The removed elements are already gone from the model list, the table only needs how many there were.
+    private List<E> unknownItems(int count) {
+        return Collections.nCopies(count, null);
+    }
+}
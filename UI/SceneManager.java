@@ -0,0 +1,117 @@
+package UI;
+
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.stage.Stage;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.concurrent.CompletableFuture;
+
+// Switches the main window between the login screen and the two dashboards.
+// Every screen is loaded from its FXML only once: the dashboards are loaded on a background thread while the login
+// screen is showing, and after that logging in or out just puts the cached node graph into the window's one Scene
+// (scene.setRoot) instead of parsing the FXML and building every table again.
+//
+// Because the controllers are reused, their initialize() only sets up the tables. Everything that belongs to one
+// login (the customer, the search text...) is set up by the controller's startSession method and dropped again in
+// endSession, which the logout handlers call. The tables load once and stay subscribed to the model events, between
+// logins they only note what changed (LazyTableList.pause/resume).
+public class SceneManager {
+
+    public enum Screen {
+        LOGIN("Dashboard.fxml", "Car Rental Management System"),
+        ADMIN("AdminDashboard.fxml", "Admin Dashboard - Car Rental System"),
+        CUSTOMER("CustomerDashboard.fxml", "Customer Dashboard");
+
+        private final String fxml;
+        private final String title;
+
+        Screen(String fxml, String title) {
+            this.fxml = fxml;
+            this.title = title;
+        }
+    }
+
+    // A loaded screen: its node graph and its controller
+    private static class Loaded {
+        final Parent root;
+        final Object controller;
+
+        Loaded(Parent root, Object controller) {
+            this.root = root;
+            this.controller = controller;
+        }
+    }
+
+    private static final EnumMap<Screen, CompletableFuture<Loaded>> screens = new EnumMap<>(Screen.class);
+    private static Stage stage;
+    private static Scene scene;
+
+    // Called once at startup with the window and the login screen that is already showing in it.
+    public static void start(Stage primaryStage, Scene mainScene, Parent loginRoot, DashboardController loginController) {
+        stage = primaryStage;
+        scene = mainScene;
+        screens.put(Screen.LOGIN, CompletableFuture.completedFuture(new Loaded(loginRoot, loginController)));
+    }
+
+    // Loads the dashboards in the background, so the first login doesn't wait for them either.
+    // Building nodes off the FX thread is fine as long as they aren't in a showing scene yet.
+    public static void preload() {
+        for (Screen screen : new Screen[] {Screen.ADMIN, Screen.CUSTOMER}) {
+            screens.put(screen, CompletableFuture.supplyAsync(() -> {
+                try {
+                    return load(screen);
+                } catch (IOException e) {
+                    throw new IllegalStateException("Error loading " + screen.fxml, e);
+                }
+            }, SceneManager::runOnPreloadThread));
+        }
+    }
+
+    // Puts a screen into the window and returns its controller (so the caller can start the session).
+    // If the background load failed the screen is loaded once more here, which reports the actual error.
+    @SuppressWarnings("unchecked")
+    public static <T> T show(Screen screen) throws IOException {
+        CompletableFuture<Loaded> future = screens.get(screen);
+        Loaded loaded;
+        try {
+            // Normally long done, the dashboards load in well under the time it takes to type a password
+            loaded = future == null ? null : future.join();
+        } catch (RuntimeException e) {
+            loaded = null;
+        }
+        if (loaded == null) {
+            loaded = load(screen);
+            screens.put(screen, CompletableFuture.completedFuture(loaded));
+        }
+
+        scene.setRoot(loaded.root);
+        stage.setTitle(screen.title);
+        return (T) loaded.controller;
+    }
+
+    // Back to the login screen, cleared for the next person.
+    public static void showLogin() throws IOException {
+        DashboardController login = show(Screen.LOGIN);
+        login.resetSession();
+    }
+
+    // For titles that depend on who is logged in.
+    public static void setTitle(String title) {
+        stage.setTitle(title);
+    }
+
+    private static Loaded load(Screen screen) throws IOException {
+        FXMLLoader loader = new FXMLLoader(SceneManager.class.getResource(screen.fxml));
+        Parent root = loader.load();
+        return new Loaded(root, loader.getController());
+    }
+
+    private static void runOnPreloadThread(Runnable task) {
+        Thread thread = new Thread(task, "scene-preload");
+        thread.setDaemon(true);
+        thread.start();
+    }
+}
@@ -1,5 +1,6 @@
 package UI;
 
+import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.scene.control.Alert;
@@ -9,6 +10,8 @@ import javafx.scene.control.PasswordField;
 import javafx.scene.control.TextField;
 import javafx.stage.Stage;
 import model.Account;
+import model.AuthService;
+import model.CustomExceptions.DuplicateKeyException;
 import model.Customer;
 import model.DataManager;
 
@@ -61,25 +64,41 @@ public class SignupDialogController {
             return;
         }
 
-        // Duplicate Username Check
-        // Loop through existing customers to ensure username is unique
-        for (Customer customer : Customer.customers) {
-            if (customer.getAccount().getUsername().equals(username)) {
-                signupStatusLabel.setText("Username already exists!");
+        // Duplicate Username and Email Checks, lookups in Customer's unique indexes
+        if (AuthService.isUsernameTaken(username)) {
+            signupStatusLabel.setText("Username already exists!");
+            return;
+        }
+        if (Customer.byEmail.contains(Customer.emailKey(email))) {
+            signupStatusLabel.setText("Email already exists!");
+            return;
+        }
+
+        // Create Account with role 'c' for Customer (Admin uses 'A')
+        // The password is hashed on AuthService's workers, the customer is created back on the FX thread.
+        signupStatusLabel.setText("Creating account...");
+        createAccountButton.setDisable(true);
+        AuthService.newAccount(username, password, 'c').whenComplete((newAccount, error) -> Platform.runLater(() -> {
+            createAccountButton.setDisable(false);
+            if (error != null) {
+                signupStatusLabel.setText("Error creating account: " + DashboardController.causeOf(error).getMessage());
                 return;
             }
-        }
+            createCustomer(name, email, newAccount);
+        }));
+    }
 
-        // Create the Account and Customer objects
-        try {
-            // Create Account with role 'c' for Customer (Admin uses 'A')
-            Account newAccount = new Account(username, password, 'c');
+    private void createCustomer(String name, String email, Account newAccount) {
+        String username = newAccount.getUsername();
 
+        // Create the Customer object
+        // Someone may have taken the name or the email while the password was being hashed, the constructor refuses it then
+        try {
             // Create Customer (This automatically adds them to the global Customer.customers list)
-            new Customer(name, email, newAccount);
+            Customer customer = new Customer(name, email, newAccount);
 
-            // 5. Persistence: Save to CSV immediately
-            DataManager.saveAllData();
+            // 5. Persistence: Append the new customer to the journal immediately
+            DataManager.logCustomerAdded(customer);
 
             // Show success message
             showAlert("Account created successfully!\nYou can now login with username: " + username);
@@ -88,6 +107,8 @@ public class SignupDialogController {
             Stage stage = (Stage) createAccountButton.getScene().getWindow();
             stage.close();
 
+        } catch (DuplicateKeyException e) {
+            signupStatusLabel.setText(e.getMessage() + "!");
         } catch (Exception e) {
             // Catch any unexpected errors during creation
             signupStatusLabel.setText("Error creating account: " + e.getMessage());
@@ -0,0 +1,103 @@
+package UI;
+
+import javafx.application.Platform;
+import javafx.concurrent.Task;
+import model.*;
+
+import java.util.concurrent.CompletableFuture;
+
+// Loads the saved data in the background while the login screen is already showing.
+// Reading a big data folder used to happen before the first scene, so the window stayed blank until it was done.
+//
+// The load runs in stages (see DataManager.loadAccounts / loadFleetAndBookings). Once the accounts are in,
+// 'accountsLoaded' completes and login can check passwords, the vehicles and the booking history keep loading
+// behind it. 'allLoaded' completes when everything is in memory, expired bookings are returned and the first run
+// data is set up; the dashboards wait for that one.
+//
+// Nothing listens to model events while this runs (the dashboards subscribe after allLoaded), so loading doesn't
+// queue any events. The futures also make everything the loader thread wrote visible to the FX thread.
+public class StartupLoader extends Task<Void> {
+
+    private static final CompletableFuture<Void> accountsLoaded = new CompletableFuture<>();
+    private static final CompletableFuture<Void> allLoaded = new CompletableFuture<>();
+
+    private final Runnable firstRunSetup;
+
+    // 'firstRunSetup' creates the default data when the system is empty, it runs on the loader thread.
+    public StartupLoader(Runnable firstRunSetup) {
+        this.firstRunSetup = firstRunSetup;
+    }
+
+    public static boolean isLoaded() {
+        return allLoaded.isDone();
+    }
+
+    // Runs 'action' on the FX thread once the accounts are loaded, right away if they already are.
+    public static void afterAccounts(Runnable action) {
+        after(accountsLoaded, action);
+    }
+
+    // Same, once everything is loaded.
+    public static void afterAll(Runnable action) {
+        after(allLoaded, action);
+    }
+
+    private static void after(CompletableFuture<Void> stage, Runnable action) {
+        if (stage.isDone()) {
+            action.run();
+        } else {
+            stage.thenRun(() -> Platform.runLater(action));
+        }
+    }
+
+    // Starts the loader on a daemon thread so it never keeps the application from closing.
+    public void start() {
+        Thread thread = new Thread(this, "startup-loader");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    protected Void call() {
+        try {
+            updateProgress(0, 4);
+            updateMessage("Loading accounts...");
+            DataManager.loadAccounts();
+            // On a first run there is nobody to log in as until the default customers exist, so login waits for those
+            if (!Customer.customers.isEmpty()) accountsLoaded.complete(null);
+            updateProgress(1, 4);
+
+            updateMessage("Loading vehicles and bookings...");
+            DataManager.loadFleetAndBookings();
+            System.out.println("All data loaded successfully!");
+            updateProgress(2, 4);
+
+            // Check for any bookings that have expired (where today > end date).
+            // This automatically marks them as completed and returns the vehicles.
+            // Whatever checkExpiry changed is appended to the journal right away.
+            updateMessage("Returning expired bookings...");
+            DataManager.logBookingsCompleted(Booking.checkExpiry());
+            // From now on bookings that end while the app is open are returned in the background.
+            ExpiryScheduler.start();
+            // And deleted vehicles are cleared out of the fleet list in the background
+            VehicleCompactor.start();
+            updateProgress(3, 4);
+
+            // If the system is empty (for example, first time running the app),
+            // we populate it with default data so the user isn't staring at a blank screen.
+            if (Vehicle.allVehicles.isEmpty()) {
+                updateMessage("Setting up initial data...");
+                firstRunSetup.run();
+                // Save this new initial data so it persists for the next run
+                DataManager.saveAllData();
+            }
+            updateProgress(4, 4);
+            updateMessage("Ready");
+        } finally {
+            // Even if loading failed the login screen shouldn't wait forever, it works with whatever got loaded
+            accountsLoaded.complete(null);
+            allLoaded.complete(null);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,159 @@
+package UI;
+
+import model.Vehicle;
+import model.VehicleIndex;
+import model.VehicleSearchIndex;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+// The rows of a vehicle table: the whole fleet cheapest first, shown through a LazyTableList.
+// Used by both dashboards. After the first load the rows are patched one vehicle at a time
+// (from model events), the rows are only worked out again on an explicit reload.
+//
+// A row is just a slot number of the VehicleIndex, the table reads the vehicle from the index (VehicleIndex.at),
+// so no list of the vehicles is ever made. Next to the slots the rows keep the daily rate in cents (to find where a
+// new vehicle goes) and the other way round, slot -> row, so a vehicle's row is found without a search.
+//
+// With search text set (the search field above the table) the rows are the matches from VehicleSearchIndex instead,
+// the SEARCH_LIMIT cheapest of them, still cheapest first. New vehicles only show up if they match.
+public class VehicleRows {
+
+    private static final int SEARCH_LIMIT = 1000;
+
+    private String filter = "";
+
+    // Rows [0, size): index slot and rate in cents of the vehicle on each row
+    private int[] slots = new int[0];
+    private long[] rates = new long[0];
+    private int size;
+    // Slot -> row, -1 for slots that aren't shown
+    private int[] rowOfSlot = new int[0];
+
+    private final List<Vehicle> rows = new AbstractList<Vehicle>() {
+        @Override
+        public Vehicle get(int index) {
+            return VehicleIndex.at(slots[index]);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    };
+    private final LazyTableList<Vehicle> view;
+
+    public VehicleRows() {
+        load();
+        view = new LazyTableList<>(rows);
+    }
+
+    public LazyTableList<Vehicle> getView() {
+        return view;
+    }
+
+    // Works the rows out again (the whole fleet, or the search), when the search text changes.
+    public void reload() {
+        load();
+        view.setSource(rows);
+    }
+
+    // Between logins the table isn't looked at, it is only told what changed at the next login (see LazyTableList).
+    public void pause() {
+        view.pause();
+    }
+
+    public void resume() {
+        view.resume();
+    }
+
+    // Called on every key typed in a search field, an empty text shows the whole fleet again.
+    public void setFilter(String text) {
+        String newFilter = text == null ? "" : text.trim();
+        if (newFilter.equals(filter)) return;
+        filter = newFilter;
+        reload();
+    }
+
+    // Puts a new vehicle (in index slot 'slot') into the rate ordered rows without working them all out again.
+    public void add(Vehicle vehicle, int slot) {
+        if (slot < 0 || rowOf(slot) >= 0) return;
+        if (!filter.isEmpty() && !VehicleSearchIndex.matches(vehicle, filter)) return;
+        long rate = vehicle.getRateCents();
+        int index = 0;
+        int high = size;
+        // First row with a higher rate, same rates keep the order they were added in
+        while (index < high) {
+            int middle = (index + high) >>> 1;
+            if (rates[middle] <= rate) index = middle + 1;
+            else high = middle;
+        }
+        if (size == slots.length) {
+            slots = Arrays.copyOf(slots, Math.max(16, size * 2));
+            rates = Arrays.copyOf(rates, slots.length);
+        }
+        System.arraycopy(slots, index, slots, index + 1, size - index);
+        System.arraycopy(rates, index, rates, index + 1, size - index);
+        slots[index] = slot;
+        rates[index] = rate;
+        size++;
+        if (slot >= rowOfSlot.length) {
+            int oldLength = rowOfSlot.length;
+            rowOfSlot = Arrays.copyOf(rowOfSlot, Math.max(slot + 1, oldLength * 2));
+            Arrays.fill(rowOfSlot, oldLength, rowOfSlot.length, -1);
+        }
+        renumber(index);
+        view.inserted(index);
+    }
+
+    // 'slot' is the one the vehicle had in the index (it has just been taken out of it).
+    public void remove(Vehicle vehicle, int slot) {
+        int index = rowOf(slot);
+        if (index < 0) return;
+        System.arraycopy(slots, index + 1, slots, index, size - index - 1);
+        System.arraycopy(rates, index + 1, rates, index, size - index - 1);
+        size--;
+        rowOfSlot[slot] = -1;
+        renumber(index);
+        view.removed(index, vehicle);
+    }
+
+    // Redraws one vehicle's row, e.g. its status after a booking.
+    public void update(Vehicle vehicle) {
+        int index = rowOf(VehicleIndex.slotOf(vehicle));
+        if (index >= 0) view.updated(index, index + 1);
+    }
+
+    private int rowOf(int slot) {
+        return slot >= 0 && slot < rowOfSlot.length ? rowOfSlot[slot] : -1;
+    }
+
+    // The rows from 'from' on have moved, point their slots at the new rows.
+    private void renumber(int from) {
+        for (int i = from; i < size; i++) rowOfSlot[slots[i]] = i;
+    }
+
+    private void load() {
+        if (filter.isEmpty()) {
+            slots = VehicleIndex.slotsByRate();
+            size = slots.length;
+        } else {
+            // Already the cheapest matches, cheapest first
+            List<Vehicle> matches = VehicleSearchIndex.search(filter, SEARCH_LIMIT);
+            size = 0;
+            slots = new int[matches.size()];
+            for (Vehicle vehicle : matches) {
+                int slot = VehicleIndex.slotOf(vehicle);
+                if (slot >= 0) slots[size++] = slot;
+            }
+        }
+        rates = new long[slots.length];
+        rowOfSlot = new int[VehicleIndex.slotCount()];
+        Arrays.fill(rowOfSlot, -1);
+        for (int i = 0; i < size; i++) {
+            rates[i] = VehicleIndex.at(slots[i]).getRateCents();
+            rowOfSlot[slots[i]] = i;
+        }
+    }
+}
@@ -4,13 +4,16 @@ package model;
 public class Account {
 
     // Datafields for username and password and private for encapsulation
+    // The password is stored as a salted hash (see AuthService), accounts from old data files may still hold plaintext.
+    // Volatile because a login on the AuthService workers can replace it with a new hash.
     private String username;
-    private String password;
+    private volatile String password;
 
     // Role Indicator if it's 'a' then it's for admin (Rental Manager), if 'c' then it's customer
     private char role;
 
     // Constructor to initiate the datafields
+    // 'password' is stored as given, new accounts pass AuthService.hash(password) (or use AuthService.newAccount).
     public Account(String username, String password, char role) {
         this.username = username;
         this.password = password;
@@ -24,9 +27,14 @@ public class Account {
         return password;
     }
 
-    // Checks if the provided password matches the stored one Used during the login process.
+    // Replaces the stored hash, used when an old plaintext or weaker hash is upgraded on login.
+    void setPassword(String password) {
+        this.password = password;
+    }
+
+    // Checks if the provided password matches the stored one.
+    // This hashes the input, so it is slow on purpose, the login screen goes through AuthService.login instead.
     public boolean checkPassword(String inputPass) {
-        // Returns true only if the input matches the stored password exactly
-        return this.password.equals(inputPass);
+        return AuthService.verify(this.password, inputPass);
     }
 }
\ No newline at end of file
@@ -0,0 +1,174 @@
+package model;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Customer login and password storage.
+//
+// Usernames are looked up in the Customer.byUsername index instead of walking Customer.customers.
+//
+// Passwords are stored as salted PBKDF2 hashes: "pbkdf2$<iterations>$<salt>$<hash>" (salt and hash in Base64).
+// The iteration count is the work factor, it is saved with every hash, so raising it later still verifies the old
+// hashes, and those are upgraded the next time their owner logs in. Older data files still hold plaintext
+// passwords, those are accepted once and replaced by a hash on that login (journaled, see DataManager).
+//
+// Hashing is slow on purpose (tens of milliseconds), so it never runs on the FX thread: login and signup hand it to
+// a small worker pool. The pool's queue is bounded, a burst of logins gets a "busy" error instead of piling up.
+public class AuthService {
+
+    private static final String PREFIX = "pbkdf2";
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+
+    public static final int DEFAULT_ITERATIONS = 120_000;
+    private static volatile int iterations = DEFAULT_ITERATIONS;
+
+    private static final int WORKERS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+    private static final int QUEUE_SIZE = 64;
+
+    private static final SecureRandom random = new SecureRandom();
+
+    private static final ThreadPoolExecutor workers = new ThreadPoolExecutor(WORKERS, WORKERS, 30, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(QUEUE_SIZE), task -> {
+                Thread thread = new Thread(task, "auth-worker");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    static {
+        workers.allowCoreThreadTimeOut(true);
+    }
+
+    // Hash compared against when the username doesn't exist, so an unknown user takes as long as a wrong password.
+    private static volatile String dummyHash;
+
+    // --- Work factor ---
+
+    public static void setIterations(int newIterations) {
+        if (newIterations < 1000) throw new IllegalArgumentException("At least 1000 PBKDF2 iterations");
+        iterations = newIterations;
+        dummyHash = null;
+    }
+
+    public static int getIterations() {
+        return iterations;
+    }
+
+    // --- Username lookups ---
+
+    public static Customer findByUsername(String username) {
+        return Customer.byUsername.find(username);
+    }
+
+    public static boolean isUsernameTaken(String username) {
+        return Customer.byUsername.contains(username);
+    }
+
+    // --- Login and signup, both run on the worker pool ---
+
+    // Completes with the customer if the username and password match, with null if they don't.
+    public static CompletableFuture<Customer> login(String username, String password) {
+        return submit(() -> {
+            Customer customer = findByUsername(username);
+            if (customer == null) {
+                verify(dummyHash(), password); // Same work as a real check
+                return null;
+            }
+            Account account = customer.getAccount();
+            String stored = account.getPassword();
+            if (!verify(stored, password)) return null;
+
+            // Plaintext from an old data file, or hashed with a lower work factor: store a fresh hash
+            if (needsRehash(stored)) {
+                account.setPassword(hash(password));
+                DataManager.logPasswordChanged(customer);
+            }
+            return customer;
+        });
+    }
+
+    // Hashes the password for a new account. The caller creates the Customer (on the FX thread).
+    public static CompletableFuture<Account> newAccount(String username, String password, char role) {
+        return submit(() -> new Account(username, hash(password), role));
+    }
+
+    // --- Hashing ---
+
+    // A new salted hash in the stored format, with the current work factor.
+    public static String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        int rounds = iterations;
+        return PREFIX + "$" + rounds + "$" + Base64.getEncoder().encodeToString(salt) + "$"
+                + Base64.getEncoder().encodeToString(pbkdf2(password, salt, rounds));
+    }
+
+    // True if 'password' matches the stored value (a hash, or plaintext from before hashing was added).
+    public static boolean verify(String stored, String password) {
+        if (stored == null || password == null) return false;
+        if (!isHashed(stored)) {
+            return MessageDigest.isEqual(stored.getBytes(), password.getBytes());
+        }
+        String[] parts = stored.split("\\$");
+        if (parts.length != 4) return false;
+        try {
+            int rounds = Integer.parseInt(parts[1]);
+            byte[] salt = Base64.getDecoder().decode(parts[2]);
+            byte[] expected = Base64.getDecoder().decode(parts[3]);
+            return MessageDigest.isEqual(expected, pbkdf2(password, salt, rounds));
+        } catch (IllegalArgumentException e) {
+            return false; // Damaged hash in the file
+        }
+    }
+
+    public static boolean isHashed(String stored) {
+        return stored.startsWith(PREFIX + "$");
+    }
+
+    private static boolean needsRehash(String stored) {
+        if (!isHashed(stored)) return true;
+        String[] parts = stored.split("\\$");
+        return parts.length != 4 || Integer.parseInt(parts[1]) < iterations;
+    }
+
+    private static byte[] pbkdf2(String password, byte[] salt, int rounds) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, rounds, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    private static String dummyHash() {
+        String hash = dummyHash;
+        if (hash == null) {
+            hash = hash("not a password");
+            dummyHash = hash;
+        }
+        return hash;
+    }
+
+    // Runs a task on the worker pool. A full queue fails the future right away instead of waiting.
+    private static <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, workers);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(
+                    new CustomExceptions.ServiceBusyException("Too many logins at once, please try again"));
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package model;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Booked date ranges of one vehicle.
+// Replaces the old single isAvailable flag, so a vehicle can have future reservations and back-to-back rentals.
+// Only active bookings are kept here. Each one covers the days [start, end), the end date being the day the vehicle
+// comes back, so the next rental can start that same day. Ranges never overlap, which means a TreeMap keyed on the
+// start day is enough to answer "is this range free?" in O(log n).
+// All methods are synchronized since bookings can be made from several threads. That alone doesn't make
+// "check, then book" safe, BookingEngine holds a per-vehicle lock around both steps.
+public class AvailabilityCalendar {
+
+    // Start epoch day -> booking covering [start, end)
+    private final TreeMap<Long, Booking> ranges = new TreeMap<>();
+
+    // First day a booking occupies the vehicle.
+    static long firstDay(Booking booking) {
+        return booking.getStartDate().toEpochDay();
+    }
+
+    // Day the vehicle is free again. A booking always occupies at least one day (same rule as the cost).
+    static long endDay(Booking booking) {
+        return Math.max(booking.getEndDate().toEpochDay(), firstDay(booking) + 1);
+    }
+
+    // True if no active booking overlaps the days [startDay, endDay).
+    public synchronized boolean isFree(long startDay, long endDay) {
+        if (endDay <= startDay) endDay = startDay + 1;
+        // The only range that can overlap is the last one starting before endDay.
+        Map.Entry<Long, Booking> before = ranges.lowerEntry(endDay);
+        return before == null || endDay(before.getValue()) <= startDay;
+    }
+
+    public synchronized boolean isFree(LocalDate start, LocalDate end) {
+        return isFree(start.toEpochDay(), end.toEpochDay());
+    }
+
+    public synchronized boolean isBookedOn(long day) {
+        return bookingOn(day) != null;
+    }
+
+    // The booking occupying the vehicle on that day, or null.
+    public synchronized Booking bookingOn(long day) {
+        Map.Entry<Long, Booking> entry = ranges.floorEntry(day);
+        if (entry == null || endDay(entry.getValue()) <= day) return null;
+        return entry.getValue();
+    }
+
+    // True if any booking still occupies the vehicle on or after 'day' (current rental or future reservation).
+    public synchronized boolean hasBookingsFrom(long day) {
+        // Ranges don't overlap, so the last one also ends last.
+        Map.Entry<Long, Booking> last = ranges.lastEntry();
+        return last != null && endDay(last.getValue()) > day;
+    }
+
+    public synchronized int size() {
+        return ranges.size();
+    }
+
+    // Adds a booking's range. Returns false (and adds nothing) if it overlaps another booking.
+    synchronized boolean reserve(Booking booking) {
+        if (!isFree(firstDay(booking), endDay(booking))) return false;
+        ranges.put(firstDay(booking), booking);
+        DynamicPricing.bookingChanged(booking, true);
+        return true;
+    }
+
+    // Removes a booking's range, called when it is completed or cancelled.
+    synchronized void release(Booking booking) {
+        if (ranges.remove(firstDay(booking), booking)) DynamicPricing.bookingChanged(booking, false);
+    }
+}
@@ -1,30 +1,34 @@
 package model;
 
+import model.CustomExceptions.DuplicateLicenseException;
+
 // Concrete Subclass from the abstract vehicle
 public class Bike extends Vehicle{
 
-    // Unique datafield for the bike from the car and van
-    private boolean helmetInclude;
-
     // Constructor
-    public Bike(String modle, String liscenseNumber, double rate, boolean helmetInclude){
+    public Bike(String modle, String liscenseNumber, double rate, boolean helmetInclude) throws DuplicateLicenseException{
+        this(modle, liscenseNumber, rate, helmetInclude, false, false);
+    }
+
+    // Used by the loaders: 'loaded' is true, 'removed' rebuilds a bike that was saved as deleted (see Vehicle)
+    Bike(String modle, String liscenseNumber, double rate, boolean helmetInclude, boolean removed, boolean loaded) throws DuplicateLicenseException{
         //Calling the Superclass Constructor to initialize the model, license and rate
-        super(modle, liscenseNumber, rate);
+        super(modle, liscenseNumber, rate, removed, loaded);
 
-        // Step 2: Initialize Bike-specific attributes
-        this.helmetInclude = helmetInclude;
-    }
-    // getters for getting tax rate as a string and as a double
-    public String getTaxRate()
-    {
-        return "10%";
-    }
-    public double getTaxRateFraction()
-    {
-        return bikeTax;
+        // Step 2: Initialize Bike-specific attributes (the helmet is the row's flag in the FleetStore)
+        store.setFlag(row, helmetInclude);
+        // Index it now that the subclass fields are set (the search index filters on them)
+        VehicleIndex.add(this);
+        // Fully built now, tell the dashboards (with its index slot), tombstones aren't shown
+        if (!removed) ModelEvents.added(this, indexSlot);
     }
     // getter for if the helmet if included
     public boolean getHelmetInclude(){
-        return helmetInclude;
+        return store.flag(row);
+    }
+
+    // Tells the indexes which bucket this vehicle belongs to
+    public VehicleType getVehicleType() {
+        return VehicleType.BIKE;
     }
 }
\ No newline at end of file
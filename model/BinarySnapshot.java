@@ -0,0 +1,230 @@
+package model;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+// Optional binary snapshot format for the DataManager.
+// The CSV files need every field split and parsed on startup, this format is made to be read straight from
+// a memory map instead. Layout of the file:
+//   Header       : magic, version, customer count, vehicle count, booking count, string count, string table size
+//   String table : every model, name, email, license, username and password, stored once (length + UTF-8 bytes)
+//   Customers    : fixed 24 byte records
+//   Vehicles     : fixed 32 byte records
+//   Bookings     : fixed 32 byte records (24 in version 1, which had no cost)
+// Records point into the string table by index, so they all have the same size and can be walked without parsing.
+class BinarySnapshot {
+
+    private static final int MAGIC = 0x43525331; // "CRS1"
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 7 * 4;
+
+    private static final int CUSTOMER_RECORD = 24;
+    private static final int VEHICLE_RECORD = 32;
+    private static final int BOOKING_RECORD = 32;
+
+    // Type codes stored in the vehicle records.
+    private static final byte CAR = 0;
+    private static final byte BIKE = 1;
+    private static final byte VAN = 2;
+
+    // Writes the given lists to 'path'. We write to a temporary file first and then rename it,
+    // so a crash in the middle never leaves a half written snapshot behind.
+    static void write(String path, List<Customer> customerList, List<Vehicle> vehicleList,
+                      List<Booking> bookingList) throws IOException {
+        // Build the string table, every distinct string gets an index.
+        List<String> strings = new ArrayList<>();
+        HashMap<String, Integer> indexes = new HashMap<>();
+        for (Customer customer : customerList) {
+            intern(customer.getName(), strings, indexes);
+            intern(customer.getEmail(), strings, indexes);
+            intern(customer.getAccount().getUsername(), strings, indexes);
+            intern(customer.getAccount().getPassword(), strings, indexes);
+        }
+        for (Vehicle vehicle : vehicleList) {
+            intern(vehicle.getModel(), strings, indexes);
+            intern(vehicle.getLicenseNumber(), strings, indexes);
+        }
+
+        List<byte[]> encoded = new ArrayList<>(strings.size());
+        int stringTableSize = 0;
+        for (String s : strings) {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            encoded.add(bytes);
+            stringTableSize += 4 + bytes.length;
+        }
+
+        int customers = customerList.size();
+        int vehicles = vehicleList.size();
+        int bookings = bookingList.size();
+        int total = HEADER_SIZE + stringTableSize
+                + customers * CUSTOMER_RECORD + vehicles * VEHICLE_RECORD + bookings * BOOKING_RECORD;
+
+        ByteBuffer buffer = ByteBuffer.allocate(total);
+
+        // Header
+        buffer.putInt(MAGIC).putInt(VERSION)
+                .putInt(customers).putInt(vehicles).putInt(bookings)
+                .putInt(strings.size()).putInt(stringTableSize);
+
+        // String table
+        for (byte[] bytes : encoded) {
+            buffer.putInt(bytes.length).put(bytes);
+        }
+
+        // Customers: id, name, email, username, password, role (+2 bytes padding)
+        for (Customer customer : customerList) {
+            buffer.putInt(customer.getCustomerId())
+                    .putInt(indexes.get(customer.getName()))
+                    .putInt(indexes.get(customer.getEmail()))
+                    .putInt(indexes.get(customer.getAccount().getUsername()))
+                    .putInt(indexes.get(customer.getAccount().getPassword()))
+                    .putChar(customer.getAccount().getRole())
+                    .putShort((short) 0);
+        }
+
+        // Vehicles: id, type, available, flag (automatic / helmet), removed, model, license, rate, capacity
+        // ('removed' used to be padding, so older snapshots read as no deleted vehicles)
+        for (Vehicle vehicle : vehicleList) {
+            byte type = CAR;
+            boolean flag = false;
+            double capacity = 0;
+            if (vehicle instanceof Car) {
+                flag = ((Car) vehicle).getIsAutmatic();
+            } else if (vehicle instanceof Bike) {
+                type = BIKE;
+                flag = ((Bike) vehicle).getHelmetInclude();
+            } else if (vehicle instanceof Van) {
+                type = VAN;
+                capacity = ((Van) vehicle).getLoadCapacityInclude();
+            }
+            buffer.putInt(vehicle.getVehicleId())
+                    .put(type)
+                    .put((byte) (vehicle.getIsAvailable() ? 1 : 0))
+                    .put((byte) (flag ? 1 : 0))
+                    .put((byte) (vehicle.isRemoved() ? 1 : 0))
+                    .putInt(indexes.get(vehicle.getModel()))
+                    .putInt(indexes.get(vehicle.getLicenseNumber()))
+                    .putDouble(vehicle.getDailyRate())
+                    .putDouble(capacity);
+        }
+
+        // Bookings: id, customer id, vehicle id, start and end as epoch days, active (+3 bytes padding), cost in cents
+        for (Booking booking : bookingList) {
+            buffer.putInt(booking.getBookingId())
+                    .putInt(booking.getCustomer().getCustomerId())
+                    .putInt(booking.getBookedVehicle().getVehicleId())
+                    .putInt((int) booking.getStartDate().toEpochDay())
+                    .putInt((int) booking.getEndDate().toEpochDay())
+                    .put((byte) (booking.isActive() ? 1 : 0))
+                    .put((byte) 0).putShort((short) 0)
+                    .putLong(booking.getCostCents());
+        }
+        buffer.flip();
+
+        Path target = Paths.get(path);
+        Path temp = Paths.get(path + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) channel.write(buffer);
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Maps the snapshot into memory and rebuilds the model from it.
+    // Returns false if the file doesn't exist or isn't a snapshot we understand.
+    static boolean load(String path) throws IOException {
+        File file = new File(path);
+        if (!file.exists()) return false;
+
+        MappedByteBuffer map;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed.
+            map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        int version = map.remaining() < HEADER_SIZE || map.getInt() != MAGIC ? -1 : map.getInt();
+        if (version != 1 && version != VERSION) {
+            System.err.println("Ignoring unknown snapshot format: " + path);
+            return false;
+        }
+        int customers = map.getInt();
+        int vehicles = map.getInt();
+        int bookings = map.getInt();
+        int stringCount = map.getInt();
+        map.getInt(); // string table size, only needed by tools that want to skip straight to the records
+
+        // Decode the string table once, the records below only hold indexes into it.
+        String[] strings = new String[stringCount];
+        for (int i = 0; i < stringCount; i++) {
+            int length = map.getInt();
+            byte[] bytes = new byte[length];
+            map.get(bytes);
+            strings[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        Customer.clearAll();
+        Vehicle.clearAll();
+        Booking.clearAll();
+
+        for (int i = 0; i < customers; i++) {
+            int id = map.getInt();
+            String name = strings[map.getInt()];
+            String email = strings[map.getInt()];
+            String username = strings[map.getInt()];
+            String password = strings[map.getInt()];
+            char role = map.getChar();
+            map.getShort();
+            DataManager.restoreCustomer(id, name, email, username, password, role);
+        }
+
+        for (int i = 0; i < vehicles; i++) {
+            int id = map.getInt();
+            byte type = map.get();
+            map.get(); // availability flag, availability now comes from the bookings
+            boolean flag = map.get() != 0;
+            boolean removed = map.get() != 0;
+            String model = strings[map.getInt()];
+            String license = strings[map.getInt()];
+            double rate = map.getDouble();
+            double capacity = map.getDouble();
+
+            String typeName = type == BIKE ? "Bike" : type == VAN ? "Van" : "Car";
+            DataManager.restoreVehicle(typeName, id, model, license, rate, flag, capacity, removed);
+        }
+
+        for (int i = 0; i < bookings; i++) {
+            int id = map.getInt();
+            int customerId = map.getInt();
+            int vehicleId = map.getInt();
+            LocalDate start = LocalDate.ofEpochDay(map.getInt());
+            LocalDate end = LocalDate.ofEpochDay(map.getInt());
+            boolean active = map.get() != 0;
+            map.get();
+            map.getShort();
+            long cost = version >= 2 ? map.getLong() : -1; // Version 1 didn't save it, quoted again
+            try {
+                DataManager.restoreBooking(id, start, end, customerId, vehicleId, active, cost);
+            } catch (CustomExceptions.VehicleNotAvailableException e) {
+                System.err.println("Skipping booking " + id + ": " + e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    private static void intern(String value, List<String> strings, HashMap<String, Integer> indexes) {
+        if (!indexes.containsKey(value)) {
+            indexes.put(value, strings.size());
+            strings.add(value);
+        }
+    }
+}
@@ -2,6 +2,10 @@ package model;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import model.CustomExceptions.VehicleNotAvailableException;
 
 // The Booking Class (Transaction Entity)
 public class Booking {
@@ -13,40 +17,93 @@ public class Booking {
     private Customer customer;
     private Vehicle bookedVehicle;
     //Data fields to detect if the booking is active and for the bookingid
-    private boolean isActive; // True = Currently rented out, False = Returned
+    private volatile boolean isActive; // True = Currently rented out, False = Returned
     private int bookingID;
+    // What the booking costs, in cents, worked out once when it is made (its quote), and the same as text for the tables.
+    // The quote is saved with the booking and loaded back as it is, prices and taxes may have changed since.
+    private final long costCents;
+    private final String costFormatted;
 
-    // a static arraylist (Static Database) that stores all booking made
-    public static ArrayList<Booking> bookings = new ArrayList<>();
+    // a static list (Static Database) that stores all booking made
+    // Synchronized because bookings can be created from several threads at once (see BookingEngine).
+    // Code that loops over it has to hold its lock, or work on a copy (new ArrayList<>(bookings) copies under the lock).
+    public static List<Booking> bookings = Collections.synchronizedList(new ArrayList<>());
 
     // Constructor to initialize all data fields
-    public Booking(LocalDate startDate, LocalDate endDate, Customer customer, Vehicle bookedVehicle) {
+    // Bookings are made through BookingEngine.book() (which holds the vehicle's lock) or by the loaders.
+    // 'savedCostCents' is the cost the loaders read back, a negative one (new bookings, or files from before it was
+    // saved) is quoted now. A completed booking ('active' false) doesn't hold any dates.
+    // Throws if an active booking overlaps another active booking of the vehicle, nothing is added in that case.
+    Booking(LocalDate startDate, LocalDate endDate, Customer customer, Vehicle bookedVehicle, boolean active,
+            long savedCostCents) throws VehicleNotAvailableException {
         this.startDate = startDate;
         this.endDate = endDate;
         this.customer = customer;
         this.bookedVehicle = bookedVehicle;
-        // CRITICAL LOGIC: to make the vehicle not available for anyone to book as it's already booked
-        bookedVehicle.setIsAvailable(false);
-        //setting the booking to active and giving it an id
-        this.isActive = true;
+        this.isActive = active;
+        this.costCents = savedCostCents >= 0 ? savedCostCents : PricingEngine.quote(bookedVehicle, startDate, endDate);
+        this.costFormatted = PricingEngine.format(costCents);
+        // CRITICAL LOGIC: block these dates in the vehicle's calendar so nobody else can book them
+        if (active && !bookedVehicle.ensureCalendar().reserve(this)) {
+            throw new VehicleNotAvailableException("Vehicle is already booked for some of these dates");
+        }
+        // Giving it an id now that it's sure to be added
         this.bookingID = getNextId();
-        // Auto-Add to static arraylist which would add it to the database too
-        bookings.add(this);
+        Registry.register(this);
+        customer.bookingAdded(this);
+        bookedVehicle.bookingAdded();
+        RevenueLedger.recordBooking(this);
+        OccupancyBitmap.booked(this);
+        // So the vehicle is returned automatically once the end date has passed
+        if (active) ExpiryScheduler.schedule(this);
+        // Auto-Add to static arraylist which would add it to the database too.
+        // The event goes out under the list's lock, so events reach the tables in the order the list changed
+        // (their index is only right in that order).
+        synchronized (bookings) {
+            bookings.add(this);
+            ModelEvents.added(this, bookings.size() - 1);
+        }
     }
 
-    // a method to check if the end date of the booking has come yet and therefore could make the booking
-    // completed and the vehicle would be available again
-    public static void checkExpiry() {
-        for (Booking book : bookings) {
-            // Logic: If the booking is still marked 'Active' BUT the end date has passed...
-            if (book.isActive() && LocalDate.now().isAfter(book.getEndDate())) {
-                // 1. Mark booking as completed
-                book.setIsActive(false);
-                // 2. Free up the vehicle so others can rent it
-                book.getCustomer().returnVehicle(book.getBookedVehicle());
-                System.out.println("Booking " + book.getBookingId() + " expired and was auto-returned.");
+    // Removes a booking from the system (the list and the registry), used when a booking is cancelled.
+    public static void removeBooking(Booking booking) {
+        int index;
+        synchronized (bookings) {
+            index = bookings.indexOf(booking);
+            if (index >= 0) {
+                bookings.remove(index);
+                ModelEvents.removed(booking, index); // Still under the lock, see the constructor
             }
         }
+        if (index >= 0) {
+            booking.getCustomer().bookingRemoved(booking);
+            booking.getBookedVehicle().bookingRemoved();
+            RevenueLedger.recordCancellation(booking);
+            OccupancyBitmap.cancelled(booking);
+        }
+        Registry.unregister(booking);
+        // Free the dates again
+        AvailabilityCalendar calendar = booking.getBookedVehicle().getCalendar();
+        if (calendar != null) calendar.release(booking);
+    }
+
+    // Forgets every booking, used by the loaders before reading a file.
+    static void clearAll() {
+        bookings.clear();
+        Registry.clearBookings();
+        Customer.clearBookings();
+        Vehicle.clearBookingCounts();
+        ExpiryScheduler.clear();
+        RevenueLedger.clear();
+        DynamicPricing.clearBookings();
+    }
+
+    // a method to check if the end date of the booking has come yet and therefore could make the booking
+    // completed and the vehicle would be available again
+    // Returns the bookings that were completed so the caller can persist the change.
+    // Only looks at the bookings that are due, see ExpiryScheduler (which also does this in the background).
+    public static List<Booking> checkExpiry() {
+        return ExpiryScheduler.expireDue();
     }
 
     // getters for start date, end date, the booked vehicle, the customer which made the booking
@@ -69,25 +126,39 @@ public class Booking {
         return isActive ? "Active" : "Completed";
     }
 
-    // Calculates the total price dynamically
-    // Formula: (Days Rented) * (Daily Rate of Vehicle)
-    public String getCostFormatted() {
+    // Days rented, the price formula is (Days Rented) * (Daily Rate of Vehicle) plus tax, see PricingEngine
+    // (with dynamic pricing on, each day's rate depends on demand).
+    public long getDays() {
         // Calculate difference in days using Epoch days (simple long subtraction)
         long days = endDate.toEpochDay() - startDate.toEpochDay();
+        return days <= 0 ? 1 : days; // Logic: Minimum charge is always 1 day
+    }
 
-        if (days <= 0) days = 1; // Logic: Minimum charge is always 1 day
-
-        // Polymorphism in action:
-        // calculateRentalCost() behaves differently if the vehicle is a Van vs a Car.
-        double cost = bookedVehicle.calculateRentalCost((int) days, bookedVehicle.getDailyRate());
+    // The cost in cents, quoted when the booking was made. This is what the RevenueLedger adds up.
+    public long getCostCents() { return costCents; }
 
-        return String.format("$%.2f", cost);
+    // Cached at creation, so rendering a table cell doesn't format anything.
+    public String getCostFormatted() {
+        return costFormatted;
     }
 
     // --- Setters ---
-    // Used when loading data from CSV (DataManager) to restore the correct state
-    public void setIsActive(boolean isActive) {
+    // Used when loading data from CSV (DataManager) to restore the correct state, and when a booking completes.
+    // Only active bookings hold dates in the vehicle's calendar.
+    // Synchronized so two threads completing the same booking don't both release it.
+    public synchronized void setIsActive(boolean isActive) {
+        if (this.isActive == isActive) return;
         this.isActive = isActive;
+        if (isActive) {
+            bookedVehicle.ensureCalendar().reserve(this);
+            ExpiryScheduler.schedule(this);
+        } else {
+            AvailabilityCalendar calendar = bookedVehicle.getCalendar();
+            if (calendar != null) calendar.release(this);
+        }
+        customer.bookingStatusChanged(this);
+        RevenueLedger.recordStatusChange(this, isActive);
+        ModelEvents.statusChanged(this);
     }
 
     // Debugging Helper
@@ -100,8 +171,17 @@ public class Booking {
     }
 
     //ID Generator to Ensures every booking gets a unique number (1, 2, 3...)
-    private static int idCounter = 1;
+    // Atomic so two threads booking at the same time never get the same number.
+    private static final AtomicInteger idCounter = new AtomicInteger(1);
     private static int getNextId() {
-        return idCounter++;
+        return idCounter.getAndIncrement();
+    }
+
+    // Used by the DataManager when loading, so a booking keeps the ID it was saved with.
+    void restoreId(int id) {
+        int oldId = bookingID;
+        this.bookingID = id;
+        Registry.rekey(this, oldId);
+        idCounter.accumulateAndGet(id + 1, Math::max);
     }
 }
\ No newline at end of file
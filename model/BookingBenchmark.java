@@ -0,0 +1,116 @@
+package model;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Throughput check for the BookingEngine, run it with: java model.BookingBenchmark [vehicles] [attemptsPerThread]
+// Several threads book random vehicles for random future dates at the same time. Afterwards it verifies that
+// every successful booking is in the system exactly once and that no vehicle got two overlapping bookings.
+// Nothing is saved to disk, it only works on the in-memory lists.
+public class BookingBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int vehicles = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        int attempts = args.length > 1 ? Integer.parseInt(args[1]) : 50_000;
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        System.out.println("Vehicles: " + vehicles + ", attempts per thread: " + attempts + ", cores: " + cores);
+        for (int threads = 1; threads <= Math.max(8, cores); threads *= 2) {
+            run(threads, vehicles, attempts);
+        }
+    }
+
+    private static void run(int threads, int vehicleCount, int attempts) throws Exception {
+        Booking.clearAll();
+        Vehicle.clearAll();
+        Customer.clearAll();
+
+        List<Vehicle> fleet = new ArrayList<>();
+        for (int i = 0; i < vehicleCount; i++) {
+            fleet.add(new Car("Car " + i, "BENCH-" + i, 50, i % 2 == 0));
+        }
+        Customer[] customers = new Customer[threads];
+        for (int i = 0; i < threads; i++) {
+            customers[i] = new Customer("Bench " + i, "bench" + i + "@example.com",
+                    new Account("bench" + i, "bench", 'c'));
+        }
+
+        AtomicInteger booked = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        LocalDate today = LocalDate.now();
+
+        for (int t = 0; t < threads; t++) {
+            Customer customer = customers[t];
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    start.await();
+                    for (int i = 0; i < attempts; i++) {
+                        Vehicle vehicle = fleet.get(random.nextInt(fleet.size()));
+                        LocalDate from = today.plusDays(random.nextInt(365));
+                        LocalDate to = from.plusDays(1 + random.nextInt(7));
+                        try {
+                            customer.bookVehicle(vehicle, from, to);
+                            booked.incrementAndGet();
+                        } catch (CustomExceptions.VehicleNotAvailableException e) {
+                            rejected.incrementAndGet();
+                        }
+                    }
+                } catch (Exception e) {
+                    e.printStackTrace();
+                } finally {
+                    done.countDown();
+                }
+            });
+            worker.start();
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        double seconds = (System.nanoTime() - begin) / 1e9;
+
+        long total = (long) threads * attempts;
+        System.out.printf("%d thread(s): %,d attempts in %.2f s = %,.0f bookings/s (%d booked, %d rejected) %s%n",
+                threads, total, seconds, total / seconds, booked.get(), rejected.get(),
+                verify(fleet, customers, booked.get()));
+    }
+
+    // Checks the result of a run, returns "OK" or what went wrong.
+    private static String verify(List<Vehicle> fleet, Customer[] customers, int booked) {
+        if (Booking.bookings.size() != booked) {
+            return "FAILED: " + booked + " successful bookings but " + Booking.bookings.size() + " in the list";
+        }
+        int personal = 0;
+        for (Customer customer : customers) personal += customer.getBookingCount();
+        if (personal != booked) {
+            return "FAILED: customers' histories hold " + personal + " bookings";
+        }
+
+        BitSet ids = new BitSet();
+        for (Booking booking : Booking.bookings) {
+            if (ids.get(booking.getBookingId())) return "FAILED: duplicate booking ID " + booking.getBookingId();
+            ids.set(booking.getBookingId());
+            if (Registry.bookingById(booking.getBookingId()) != booking) {
+                return "FAILED: booking " + booking.getBookingId() + " missing from the registry";
+            }
+        }
+
+        // Calendars never accept an overlap, so if every booking made it into its vehicle's calendar none overlap.
+        int inCalendars = 0;
+        for (Vehicle vehicle : fleet) {
+            if (vehicle.getCalendar() != null) inCalendars += vehicle.getCalendar().size();
+        }
+        if (inCalendars != booked) {
+            return "FAILED: calendars hold " + inCalendars + " bookings (overlapping bookings were created)";
+        }
+        return "OK";
+    }
+}
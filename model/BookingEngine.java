@@ -0,0 +1,67 @@
+package model;
+
+import java.time.LocalDate;
+import java.util.concurrent.locks.ReentrantLock;
+import model.CustomExceptions.*;
+
+// Makes booking safe when several threads book at the same time.
+// Checking the calendar and then creating the Booking are two steps, so two callers could both see the dates free
+// and both book the car. Here the two steps run while holding a lock for that vehicle.
+// We don't want one lock per vehicle object (hundreds of thousands of them), and one global lock would make every
+// booking wait for every other one, so vehicles share a fixed set of locks (lock striping): bookings of different
+// vehicles almost always take different locks and run in parallel.
+public class BookingEngine {
+
+    private static final int STRIPES = 256; // Power of two, see stripeFor()
+    private static final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+
+    static {
+        for (int i = 0; i < STRIPES; i++) locks[i] = new ReentrantLock();
+    }
+
+    // Creates the booking if the vehicle is free for [startDate, endDate), atomically per vehicle.
+    public static Booking book(Customer customer, Vehicle vehicle, LocalDate startDate, LocalDate endDate)
+            throws VehicleNotAvailableException {
+        ReentrantLock lock = stripeFor(vehicle);
+        lock.lock();
+        try {
+            if (vehicle.isRemoved()) {
+                throw new VehicleNotAvailableException("Vehicle has been removed from the fleet");
+            }
+            // The constructor checks and reserves the dates, still under the lock, so nobody can take them in between.
+            return new Booking(startDate, endDate, customer, vehicle, true, -1);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Cancels a booking, freeing its dates.
+    public static void cancel(Booking booking) {
+        ReentrantLock lock = stripeFor(booking.getBookedVehicle());
+        lock.lock();
+        try {
+            Booking.removeBooking(booking);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Marks a booking completed (vehicle returned), freeing its remaining dates.
+    public static void complete(Booking booking) {
+        ReentrantLock lock = stripeFor(booking.getBookedVehicle());
+        lock.lock();
+        try {
+            booking.setIsActive(false);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Every vehicle always maps to the same lock. The identity hash doesn't change when the vehicle ID does.
+    // Vehicle.removeVehicle() takes it too, so a vehicle can't be deleted halfway through a booking.
+    static ReentrantLock stripeFor(Vehicle vehicle) {
+        int h = System.identityHashCode(vehicle);
+        h ^= (h >>> 16);
+        return locks[h & (STRIPES - 1)];
+    }
+}
@@ -0,0 +1,373 @@
+package model;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Bulk importer for booking files (same format as bookings.csv: id,start,end,customerId,vehicleId,active,costCents).
+// The cost is optional, rows without it (older files) are priced when they are imported.
+// Built for big migrations with millions of rows:
+//   1. The file is cut into byte ranges, each one moved forward to the next line break so no line is split.
+//   2. The ranges are parsed in parallel on the fork-join pool. The parser reads the bytes directly
+//      (no String per line, no split(), no LocalDate.parse), and stores the fields in int arrays.
+//   3. The rows are merged and sorted by booking ID, then turned into Booking objects on the calling thread,
+//      since the model lists aren't meant to be filled from several threads.
+// A bad row never stops the import, it ends up in the ImportReport with its line number.
+public class BookingImporter {
+
+    // Size of one parsing chunk before aligning it on a line break.
+    private static final long CHUNK_SIZE = 4L * 1024 * 1024;
+
+    // Fields per line, the last one (the cost) can be left out.
+    private static final int FIELDS = 7;
+
+    public static ImportReport importFile(String path) throws IOException {
+        long startTime = System.currentTimeMillis();
+        ImportReport report = new ImportReport(path);
+        File file = new File(path);
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long[] bounds = chunkBounds(channel);
+            Chunk[] chunks = new Chunk[bounds.length - 1];
+            for (int i = 0; i < chunks.length; i++) {
+                chunks[i] = new Chunk(channel, bounds[i], bounds[i + 1]);
+            }
+
+            // Parse every chunk in parallel.
+            ForkJoinPool.commonPool().invoke(new ParseTask(chunks, 0, chunks.length));
+
+            merge(chunks, report);
+        }
+
+        report.setElapsedMillis(System.currentTimeMillis() - startTime);
+        return report;
+    }
+
+    // Cuts the file into ranges of about CHUNK_SIZE bytes, each range ends right after a '\n'.
+    private static long[] chunkBounds(FileChannel channel) throws IOException {
+        long size = channel.size();
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        ByteBuffer probe = ByteBuffer.allocate(256);
+        long position = CHUNK_SIZE;
+        while (position < size) {
+            // Walk forward until the end of the current line.
+            long boundary = -1;
+            while (boundary < 0 && position < size) {
+                probe.clear();
+                int read = channel.read(probe, position);
+                if (read <= 0) break;
+                for (int i = 0; i < read; i++) {
+                    if (probe.get(i) == '\n') {
+                        boundary = position + i + 1;
+                        break;
+                    }
+                }
+                if (boundary < 0) position += read;
+            }
+            if (boundary < 0 || boundary >= size) break;
+            bounds.add(boundary);
+            position = boundary + CHUNK_SIZE;
+        }
+        bounds.add(size);
+
+        long[] result = new long[bounds.size()];
+        for (int i = 0; i < result.length; i++) result[i] = bounds.get(i);
+        return result;
+    }
+
+    // Splits the chunk list in halves until one chunk is left, then parses it.
+    private static class ParseTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Chunk[] chunks;
+        private final int from, to;
+
+        ParseTask(Chunk[] chunks, int from, int to) {
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                chunks[from].parse();
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ParseTask(chunks, from, middle), new ParseTask(chunks, middle, to));
+        }
+    }
+
+    // One byte range of the file and the rows parsed from it, kept in parallel int arrays.
+    private static class Chunk {
+        private final FileChannel channel;
+        private final long start, end;
+
+        int rows;
+        int[] ids = new int[1024];
+        int[] startDays = new int[1024];
+        int[] endDays = new int[1024];
+        int[] customerIds = new int[1024];
+        int[] vehicleIds = new int[1024];
+        boolean[] active = new boolean[1024];
+        long[] costs = new long[1024];  // -1 if the row has no cost
+        int[] lines = new int[1024];   // line number inside the chunk, for the report
+
+        int lineCount;                 // lines seen in this chunk, turned into absolute line numbers later
+        final List<Integer> errorLines = new ArrayList<>();
+        final List<String> errorMessages = new ArrayList<>();
+
+        // Field boundaries of the line being parsed, reused for every line.
+        private final int[] fieldStart = new int[FIELDS];
+        private final int[] fieldEnd = new int[FIELDS];
+
+        Chunk(FileChannel channel, long start, long end) {
+            this.channel = channel;
+            this.start = start;
+            this.end = end;
+        }
+
+        void parse() {
+            MappedByteBuffer buffer;
+            try {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            } catch (IOException e) {
+                error(0, "Could not read bytes " + start + "-" + end + ": " + e.getMessage());
+                return;
+            }
+
+            int limit = buffer.limit();
+            int lineStart = 0;
+            for (int i = 0; i <= limit; i++) {
+                if (i == limit || buffer.get(i) == '\n') {
+                    if (i == limit && lineStart == limit) break; // No trailing partial line
+                    int lineEnd = i;
+                    if (lineEnd > lineStart && buffer.get(lineEnd - 1) == '\r') lineEnd--;
+                    if (lineEnd > lineStart) parseLine(buffer, lineStart, lineEnd, lineCount);
+                    lineCount++;
+                    lineStart = i + 1;
+                }
+            }
+        }
+
+        // Tokenizes one line in place, the fields are read straight from the bytes.
+        private void parseLine(ByteBuffer buffer, int from, int to, int line) {
+            int field = 0;
+            fieldStart[0] = from;
+            for (int i = from; i < to && field < FIELDS; i++) {
+                if (buffer.get(i) == ',') {
+                    fieldEnd[field] = i;
+                    if (++field < FIELDS) fieldStart[field] = i + 1;
+                }
+            }
+            int fields = FIELDS;
+            if (field < FIELDS) {
+                if (field < 5) {
+                    error(line, "Expected 6 or 7 fields but found " + (field + 1));
+                    return;
+                }
+                fieldEnd[field] = to; // Last field runs to the end of the line
+                fields = field + 1;
+            }
+
+            int id = parseInt(buffer, fieldStart[0], fieldEnd[0]);
+            int startDay = parseDate(buffer, fieldStart[1], fieldEnd[1]);
+            int endDay = parseDate(buffer, fieldStart[2], fieldEnd[2]);
+            int customerId = parseInt(buffer, fieldStart[3], fieldEnd[3]);
+            int vehicleId = parseInt(buffer, fieldStart[4], fieldEnd[4]);
+            int isActive = parseBoolean(buffer, fieldStart[5], fieldEnd[5]);
+            long cost = fields == FIELDS ? parseCents(buffer, fieldStart[6], fieldEnd[6]) : -1;
+
+            if (id == Integer.MIN_VALUE) { error(line, "Invalid booking ID"); return; }
+            if (startDay == Integer.MIN_VALUE) { error(line, "Invalid start date"); return; }
+            if (endDay == Integer.MIN_VALUE) { error(line, "Invalid end date"); return; }
+            if (customerId == Integer.MIN_VALUE) { error(line, "Invalid customer ID"); return; }
+            if (vehicleId == Integer.MIN_VALUE) { error(line, "Invalid vehicle ID"); return; }
+            if (isActive < 0) { error(line, "Invalid active flag"); return; }
+            if (cost == Long.MIN_VALUE) { error(line, "Invalid cost"); return; }
+
+            if (rows == ids.length) grow();
+            ids[rows] = id;
+            startDays[rows] = startDay;
+            endDays[rows] = endDay;
+            customerIds[rows] = customerId;
+            vehicleIds[rows] = vehicleId;
+            active[rows] = isActive == 1;
+            costs[rows] = cost;
+            lines[rows] = line;
+            rows++;
+        }
+
+        private void error(int line, String message) {
+            errorLines.add(line);
+            errorMessages.add(message);
+        }
+
+        private void grow() {
+            int size = ids.length * 2;
+            ids = Arrays.copyOf(ids, size);
+            startDays = Arrays.copyOf(startDays, size);
+            endDays = Arrays.copyOf(endDays, size);
+            customerIds = Arrays.copyOf(customerIds, size);
+            vehicleIds = Arrays.copyOf(vehicleIds, size);
+            active = Arrays.copyOf(active, size);
+            costs = Arrays.copyOf(costs, size);
+            lines = Arrays.copyOf(lines, size);
+        }
+    }
+
+    // Sorts all parsed rows by booking ID and creates the Booking objects, reporting rows that don't fit.
+    private static void merge(Chunk[] chunks, ImportReport report) {
+        long[] firstLine = new long[chunks.length];
+        int[] firstRow = new int[chunks.length];
+        int total = 0;
+        long lines = 0;
+        long parseErrors = 0;
+        for (int c = 0; c < chunks.length; c++) {
+            firstLine[c] = lines + 1; // Line numbers in the report start at 1
+            firstRow[c] = total;
+            lines += chunks[c].lineCount;
+            total += chunks[c].rows;
+            parseErrors += chunks[c].errorLines.size();
+        }
+
+        // Pack (booking id, row number across all chunks) into one long, so a primitive sort orders everything by ID.
+        long[] order = new long[total];
+        for (int c = 0; c < chunks.length; c++) {
+            for (int r = 0; r < chunks[c].rows; r++) {
+                order[firstRow[c] + r] = ((long) chunks[c].ids[r] << 32) | (firstRow[c] + r);
+            }
+        }
+        Arrays.parallelSort(order);
+
+        for (long key : order) {
+            int row = (int) key;
+            // Find the chunk holding this row (firstRow is sorted).
+            int c = Arrays.binarySearch(firstRow, row);
+            if (c < 0) c = -c - 2;
+            while (c + 1 < chunks.length && firstRow[c + 1] == row) c++; // Skip empty chunks
+            materialize(chunks[c], row - firstRow[c], firstLine[c], report);
+        }
+
+        for (int c = 0; c < chunks.length; c++) {
+            for (int e = 0; e < chunks[c].errorLines.size(); e++) {
+                report.addError(firstLine[c] + chunks[c].errorLines.get(e), chunks[c].errorMessages.get(e));
+            }
+        }
+        report.getErrors().sort(Comparator.comparingLong(ImportReport.RowError::getLine));
+        report.setRowsRead(total + parseErrors);
+    }
+
+    private static void materialize(Chunk chunk, int row, long firstLine, ImportReport report) {
+        long line = firstLine + chunk.lines[row];
+        int id = chunk.ids[row];
+        if (Registry.bookingById(id) != null) {
+            report.addError(line, "Duplicate booking ID " + id);
+            return;
+        }
+        if (Registry.customerById(chunk.customerIds[row]) == null) {
+            report.addError(line, "Unknown customer ID " + chunk.customerIds[row]);
+            return;
+        }
+        if (Registry.vehicleById(chunk.vehicleIds[row]) == null) {
+            report.addError(line, "Unknown vehicle ID " + chunk.vehicleIds[row]);
+            return;
+        }
+        try {
+            DataManager.restoreBooking(id, LocalDate.ofEpochDay(chunk.startDays[row]), LocalDate.ofEpochDay(chunk.endDays[row]),
+                    chunk.customerIds[row], chunk.vehicleIds[row], chunk.active[row], chunk.costs[row]);
+        } catch (CustomExceptions.VehicleNotAvailableException e) {
+            // An active booking whose dates are taken by another active booking of the vehicle
+            report.addError(line, "Booking " + id + " overlaps another active booking of vehicle " + chunk.vehicleIds[row]);
+            return;
+        }
+        report.setImported(report.getImported() + 1);
+    }
+
+    // Field parsers working directly on the bytes. They return Integer.MIN_VALUE (or -1) for bad input.
+
+    private static int parseInt(ByteBuffer buffer, int from, int to) {
+        if (from >= to) return Integer.MIN_VALUE;
+        boolean negative = buffer.get(from) == '-';
+        int i = negative ? from + 1 : from;
+        if (i >= to || to - i > 10) return Integer.MIN_VALUE;
+        long value = 0;
+        for (; i < to; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) return Integer.MIN_VALUE;
+            value = value * 10 + digit;
+        }
+        if (negative) value = -value;
+        if (value > Integer.MAX_VALUE || value <= Integer.MIN_VALUE) return Integer.MIN_VALUE;
+        return (int) value;
+    }
+
+    // A non-negative amount of cents, Long.MIN_VALUE for bad input.
+    private static long parseCents(ByteBuffer buffer, int from, int to) {
+        if (from >= to || to - from > 18) return Long.MIN_VALUE;
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) return Long.MIN_VALUE;
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    // Reads a yyyy-MM-dd date and returns its epoch day.
+    private static int parseDate(ByteBuffer buffer, int from, int to) {
+        if (to - from != 10 || buffer.get(from + 4) != '-' || buffer.get(from + 7) != '-') return Integer.MIN_VALUE;
+        int year = parseInt(buffer, from, from + 4);
+        int month = parseInt(buffer, from + 5, from + 7);
+        int day = parseInt(buffer, from + 8, from + 10);
+        if (year == Integer.MIN_VALUE || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)) {
+            return Integer.MIN_VALUE;
+        }
+        return (int) epochDay(year, month, day);
+    }
+
+    // 1 for true, 0 for false, -1 for anything else (case insensitive, like Boolean.parseBoolean but strict).
+    private static int parseBoolean(ByteBuffer buffer, int from, int to) {
+        if (matches(buffer, from, to, "true")) return 1;
+        if (matches(buffer, from, to, "false")) return 0;
+        return -1;
+    }
+
+    private static boolean matches(ByteBuffer buffer, int from, int to, String word) {
+        if (to - from != word.length()) return false;
+        for (int i = 0; i < word.length(); i++) {
+            if (Character.toLowerCase((char) buffer.get(from + i)) != word.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private static int daysInMonth(int year, int month) {
+        switch (month) {
+            case 2: return (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4: case 6: case 9: case 11: return 30;
+            default: return 31;
+        }
+    }
+
+    // Days since 1970-01-01 for a date, without creating a LocalDate (same result as LocalDate.toEpochDay()).
+    private static long epochDay(int year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153L * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+}
@@ -1,31 +1,35 @@
 package model;
 
+import model.CustomExceptions.DuplicateLicenseException;
+
 // Concrete Subclass from the superclass vehicle
 public class Car extends Vehicle{
 
-    // Unique datafield for the car to check if it's automatic or not
-    private boolean isAutomatic;
-
     // Constructor to initiaize the datafields
-    public Car(String model, String liscenseNumber, double rate, boolean isAuto){
-        //Calling the Superclass Constructor to initialize the model, license and rate
-        super(model, liscenseNumber, rate);
-        //Initialize Car-specific attributes
-        this.isAutomatic = isAuto;
+    public Car(String model, String liscenseNumber, double rate, boolean isAuto) throws DuplicateLicenseException{
+        this(model, liscenseNumber, rate, isAuto, false, false);
     }
 
-    //getters to get the taxrate as a string and as a double
-    public String getTaxRate()
-    {
-        return "30%";
-    }
-    public double getTaxRateFraction()
-    {
-        return carTax;
+    // Used by the loaders: 'loaded' is true, 'removed' rebuilds a car that was saved as deleted (see Vehicle)
+    Car(String model, String liscenseNumber, double rate, boolean isAuto, boolean removed, boolean loaded) throws DuplicateLicenseException{
+        //Calling the Superclass Constructor to initialize the model, license and rate
+        super(model, liscenseNumber, rate, removed, loaded);
+        //Initialize Car-specific attributes (automatic is the row's flag in the FleetStore)
+        store.setFlag(row, isAuto);
+        // Index it now that the subclass fields are set (the search index filters on them)
+        VehicleIndex.add(this);
+        // Fully built now, tell the dashboards (with its index slot), tombstones aren't shown
+        if (!removed) ModelEvents.added(this, indexSlot);
     }
 
+
     // Getter for the specific attribute of the car
     public boolean getIsAutmatic(){
-        return isAutomatic;
+        return store.flag(row);
+    }
+
+    // Tells the indexes which bucket this vehicle belongs to
+    public VehicleType getVehicleType() {
+        return VehicleType.CAR;
     }
 }
\ No newline at end of file
@@ -31,15 +31,38 @@ public class CustomExceptions {
         }
     }
 
+    //DuplicateKeyException
+    // Thrown by a unique SecondaryIndex when a new entity has a key that another one already has
+    // (a username or email that is taken, a license plate that is already in the fleet...).
+    public static class DuplicateKeyException extends Exception {
+        // Pass the error message up to the standard Exception class
+        public DuplicateKeyException(String message) {
+            super(message);
+        }
+
+        public DuplicateKeyException(String indexName, Object key) {
+            super(indexName + " already exists: " + key);
+        }
+    }
+
     //DuplicateLicenseException
-    // Thrown in the Admin Dashboard when adding a new vehicle to prevent two cars from having the same License Plate.
-    public static class DuplicateLicenseException extends Exception {
+    // Thrown when a new vehicle would have the same License Plate as one in the fleet (see Vehicle.byLicense).
+    public static class DuplicateLicenseException extends DuplicateKeyException {
         // Pass the error message up to the standard Exception class
         public DuplicateLicenseException(String message) {
             super(message);
         }
     }
 
+    //ServiceBusyException
+    // Thrown when the login workers already have a full queue (see AuthService), the user can simply try again.
+    public static class ServiceBusyException extends Exception {
+        // Pass the error message up to the standard Exception class
+        public ServiceBusyException(String message) {
+            super(message);
+        }
+    }
+
     //InvalidVehicleDataException
     // Thrown when Admin inputs are logically wrong.
     // Examples: Negative Daily Rate, Empty Model Name, or Negative Capacity.
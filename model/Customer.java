@@ -2,6 +2,8 @@ package model;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 import model.CustomExceptions.*;
 
 // Customer Entity Class which represents a client in the rental system.
@@ -16,20 +18,119 @@ public class Customer {
     // a static arraylist (static database) to store all the customers in the system
     public static ArrayList<Customer> customers = new ArrayList<>();
 
-    //Personal Booking History as a static arraylist
-    ArrayList<Booking> bookings = new ArrayList<>();
+    // Personal bookings, split into the active ones and the history (completed).
+    // Booking keeps these up to date itself when it is created or loaded, cancelled and completed (also by expiry),
+    // so the customer dashboard reads them directly instead of going through every booking in the system.
+    // Guarded by the customer's own lock, bookings can change from the expiry scheduler thread.
+    private final ArrayList<Booking> activeBookings = new ArrayList<>();
+    private final ArrayList<Booking> pastBookings = new ArrayList<>();
+
+    // Usernames (exact, login is case sensitive) and emails (ignoring case), both unique.
+    // AuthService looks customers up through byUsername when they log in.
+    public static final SecondaryIndex<String, Customer> byUsername =
+            new SecondaryIndex<>("Username", true, customer -> customer.account.getUsername());
+    public static final SecondaryIndex<String, Customer> byEmail =
+            new SecondaryIndex<>("Email", true, customer -> emailKey(customer.email));
+
+    public static String emailKey(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
 
     // Static counter for Auto-Incrementing IDs (1, 2, 3...)
     private static int idCounter = 1;
 
     // Constructor to initialize datafields and adding the customer to the database
-    public Customer(String name, String email, Account account){
-        this.customerId = idCounter++; // Assign unique ID and increment
+    // Throws if the username or the email is already taken, nothing is added in that case.
+    public Customer(String name, String email, Account account) throws DuplicateKeyException {
+        this(name, email, account, false);
+    }
+
+    // 'loaded' is for the loaders: older files can have two customers with the same email (it didn't have to be
+    // unique), the second one is kept as a conflict of the index instead of being refused (see SecondaryIndex).
+    Customer(String name, String email, Account account, boolean loaded) throws DuplicateKeyException {
         this.name = name;
         this.email = email;
         this.account = account;
-        // When a new Customer is created, immediately add them to the global system list.
+        if (loaded) {
+            byUsername.addLoaded(this);
+            byEmail.addLoaded(this);
+        } else {
+            byUsername.add(this);
+            try {
+                byEmail.add(this);
+            } catch (DuplicateKeyException e) {
+                byUsername.remove(this);
+                throw e;
+            }
+        }
+        this.customerId = idCounter++; // Assign unique ID and increment
+        // When a new Customer is created, immediately add them to the global system list (and the registry).
         customers.add(this);
+        Registry.register(this);
+        ModelEvents.added(this, customers.size() - 1);
+    }
+
+    // Copies of this customer's bookings: active, history, and both (active first).
+    public synchronized List<Booking> getActiveBookings() {
+        return new ArrayList<>(activeBookings);
+    }
+
+    public synchronized List<Booking> getPastBookings() {
+        return new ArrayList<>(pastBookings);
+    }
+
+    public synchronized List<Booking> getBookings() {
+        List<Booking> all = new ArrayList<>(activeBookings.size() + pastBookings.size());
+        all.addAll(activeBookings);
+        all.addAll(pastBookings);
+        return all;
+    }
+
+    public synchronized int getBookingCount() {
+        return activeBookings.size() + pastBookings.size();
+    }
+
+    // --- Index upkeep, called by Booking ---
+    synchronized void bookingAdded(Booking booking) {
+        (booking.isActive() ? activeBookings : pastBookings).add(booking);
+    }
+
+    synchronized void bookingRemoved(Booking booking) {
+        if (!activeBookings.remove(booking)) pastBookings.remove(booking);
+    }
+
+    synchronized void bookingStatusChanged(Booking booking) {
+        if (booking.isActive()) {
+            if (pastBookings.remove(booking)) activeBookings.add(booking);
+        } else {
+            if (activeBookings.remove(booking)) pastBookings.add(booking);
+        }
+    }
+
+    // Empties every customer's bookings, used when all bookings are cleared before loading.
+    static void clearBookings() {
+        for (Customer customer : customers) {
+            synchronized (customer) {
+                customer.activeBookings.clear();
+                customer.pastBookings.clear();
+            }
+        }
+    }
+
+    // Forgets every customer, used by the loaders before reading a file.
+    static void clearAll() {
+        customers.clear();
+        Registry.clearCustomers();
+        byUsername.clear();
+        byEmail.clear();
+    }
+
+    // Used by the DataManager when loading, so a customer keeps the ID it was saved with.
+    void restoreId(int id) {
+        int oldId = customerId;
+        this.customerId = id;
+        Registry.rekey(this, oldId);
+        if (id >= idCounter) idCounter = id + 1;
     }
 
     // Getters for the id, name, email, account on our system
@@ -45,7 +146,7 @@ public class Customer {
 
     // Making a Booking for the customer
     // This method demonstrates the "Exception Handling" requirement as it throws specific exceptions
-    public void bookVehicle(Vehicle vehicle, LocalDate startDate, LocalDate endDate)
+    public Booking bookVehicle(Vehicle vehicle, LocalDate startDate, LocalDate endDate)
             throws InvalidBookingException, VehicleNotAvailableException, InvalidDateException {
 
         // We check every possible error condition before creating the booking to make sure it's valid
@@ -64,21 +165,17 @@ public class Customer {
         if (endDate.isBefore(startDate)) {
             throw new InvalidDateException("End date cannot be before start date");
         }
-        // Vehicle must be available not booked by another customer
-        if (!vehicle.getIsAvailable()) {
-            throw new VehicleNotAvailableException("Vehicle is not available for booking");
-        }
 
-        //Create Booking after all checks have passed
-        Booking newBooking = new Booking(startDate, endDate, this, vehicle);
-        // Add to this customer's personal history
-        bookings.add(newBooking);
+        // Create Booking after all checks have passed.
+        // The engine checks that the vehicle is free and books it in one step, so two customers can't both get it.
+        // The new booking adds itself to this customer's active bookings.
+        return BookingEngine.book(this, vehicle, startDate, endDate);
     }
 
     // Helper method to return a vehicle
     // Usually called by Booking.checkExpiry() or the Admin Panel.
-    public void returnVehicle(Vehicle vehicle) {
-        vehicle.setIsAvailable(true); // Make car available for others
+    public void returnVehicle(Booking booking) {
+        BookingEngine.complete(booking); // Completes the booking and frees its dates for others
         System.out.println("Vehicle returned by customer: " + this.name);
     }
 }
\ No newline at end of file
@@ -0,0 +1,75 @@
+package model;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+// Append-only journal used by the DataManager.
+// Instead of rewriting every CSV file after each click, every change (a booking, a cancellation, a new vehicle...)
+// is written here as one small line. On startup the journal is replayed on top of the last CSV snapshot,
+// and once it grows too big the DataManager folds it back into fresh snapshot files and empties it.
+public class DataJournal {
+
+    private final File file;
+
+    // Number of records currently sitting in the journal file, used to decide when to compact.
+    private int recordCount;
+
+    public DataJournal(String path) {
+        this.file = new File(path);
+        this.recordCount = countRecords();
+    }
+
+    // Appends a group of records in one write, followed by a single fsync for the whole group.
+    // This way a cancellation that touches several records costs one disk flush, not one per record.
+    public synchronized void append(List<String> records) throws IOException {
+        if (records.isEmpty()) return;
+
+        StringBuilder group = new StringBuilder();
+        for (String record : records) {
+            group.append(record).append('\n');
+        }
+
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            out.write(group.toString().getBytes(StandardCharsets.UTF_8));
+            out.getFD().sync(); // Make sure the group really reached the disk before we return
+        }
+        recordCount += records.size();
+    }
+
+    // Reads every record in the order it was written.
+    public synchronized List<String> readAll() throws IOException {
+        List<String> records = new ArrayList<>();
+        if (!file.exists()) return records;
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) records.add(line);
+            }
+        }
+        return records;
+    }
+
+    // Empties the journal, called right after its content has been folded into a snapshot.
+    public synchronized void truncate() throws IOException {
+        try (FileOutputStream out = new FileOutputStream(file, false)) {
+            out.getFD().sync();
+        }
+        recordCount = 0;
+    }
+
+    public synchronized int size() {
+        return recordCount;
+    }
+
+    // Counts the records already on disk (a journal left behind by the previous session).
+    private int countRecords() {
+        try {
+            return readAll().size();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
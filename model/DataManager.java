@@ -1,7 +1,11 @@
 package model;
 
 import java.io.*;
+import java.nio.file.*;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import model.CustomExceptions.*;
 
 // Data Persistence layer, handles I/O, basically what enables the program to not forget about the session it had,
 // and save its bookings, customers and everything to the data folder.
@@ -15,6 +19,27 @@ public class DataManager {
     private static final String VEHICLES_FILE = DATA_FOLDER + "vehicles.csv";
     private static final String BOOKINGS_FILE = DATA_FOLDER + "bookings.csv";
 
+    // Optional binary snapshot, much faster to load than the CSV files (see BinarySnapshot).
+    private static final String SNAPSHOT_FILE = DATA_FOLDER + "snapshot.bin";
+
+    // Which of the two holds the latest snapshot ("binary" or "csv"), the journal only applies on top of that one.
+    private static final String FORMAT_FILE = DATA_FOLDER + "snapshot.format";
+
+    // Every change made since the last snapshot is appended here (see DataJournal).
+    private static final String JOURNAL_FILE = DATA_FOLDER + "journal.log";
+
+    // Tax rates per vehicle type and date, see TaxRules.
+    private static final String TAX_RULES_FILE = DATA_FOLDER + "tax_rules.csv";
+
+    // Switches the admin can flip, one "name,value" per line (for now only whether dynamic pricing is on).
+    private static final String SETTINGS_FILE = DATA_FOLDER + "settings.csv";
+
+    // Last field of a vehicle line in vehicles.csv for a deleted vehicle (kept because bookings refer to it).
+    private static final String REMOVED_MARK = "removed";
+
+    // Once the journal holds this many records we fold it into new snapshot files.
+    private static final int COMPACTION_THRESHOLD = 500;
+
     // A static block, basically something that runs on the JVM calling the class DataManager.
     // It just checks if our folder exists, if it doesn't then it would create that folder.
     static {
@@ -24,39 +49,350 @@ public class DataManager {
         }
     }
 
+    private static final DataJournal journal = new DataJournal(JOURNAL_FILE);
+
+    // All writes happen on this service's background thread, see PersistenceService.
+    private static final PersistenceService persistence = new PersistenceService(journal);
+
+    // Journal records submitted since the last snapshot request, drives compaction.
+    private static int recordsSinceSnapshot = journal.size();
+
+    // When journal mode is off, every change falls back to rewriting the full CSV files like before.
+    private static boolean journalMode = true;
+
+    // When binary snapshots are on, snapshots go to snapshot.bin instead of the CSV files.
+    // The CSV files are still available through exportCsv() / importCsv().
+    // Every snapshot records its format in snapshot.format, and startup loads that format and switches this back to it,
+    // so the files of the other format (stale once the journal was emptied) are never loaded by mistake.
+    private static boolean binarySnapshots = false;
+
+    public static void setJournalMode(boolean enabled) { journalMode = enabled; }
+    public static boolean isJournalMode() { return journalMode; }
+    public static void setBinarySnapshots(boolean enabled) { binarySnapshots = enabled; }
+    public static boolean isBinarySnapshots() { return binarySnapshots; }
+
     // These are the simple buttons the rest of the app pushes to save/load everything.
-    public static void saveAllData() {
-        saveCustomers();
-        saveVehicles();
-        saveBookings();
-        System.out.println("All data saved successfully to CSV!");
+    // Saving writes a full snapshot, which means everything in the journal is now covered, so it gets emptied.
+    // We only copy the lists here (cheap), the actual writing happens on the background writer thread.
+    public static synchronized void saveAllData() {
+        if (loading) {
+            // Half loaded lists would overwrite the files with less than they hold, the snapshot waits for the load
+            snapshotDeferred = true;
+            return;
+        }
+        List<Customer> customers = new ArrayList<>(Customer.customers);
+        List<Vehicle> vehicles = Vehicle.savedVehicles();
+        List<Booking> bookings = new ArrayList<>(Booking.bookings);
+        boolean binary = binarySnapshots;
+
+        persistence.submitSnapshot(() -> {
+            if (binary) {
+                BinarySnapshot.write(SNAPSHOT_FILE, customers, vehicles, bookings);
+            } else {
+                writeCsv(customers, vehicles, bookings);
+            }
+            // Only after the snapshot is complete (and before the journal is emptied), a crash in between still
+            // loads the previous format plus the whole journal
+            writeFormat(binary);
+        });
+        recordsSinceSnapshot = 0;
+    }
+
+    // Waits until everything queued so far is on disk, called when the application closes.
+    public static void flush() {
+        persistence.flush();
+    }
+
+    // Write latency and queue depth of the background writer.
+    public static PersistenceService getPersistence() {
+        return persistence;
     }
 
+    // Loads the last snapshot, then replays whatever happened after it.
+    // If binary snapshots are on but there is no snapshot.bin yet (first run after switching), we read the CSV files.
     public static void loadAllData() {
+        loadAccounts();
+        loadFleetAndBookings();
+        System.out.println("All data loaded successfully!");
+    }
+
+    // Startup loads in two stages so the login screen can be used before everything is in memory.
+    // Stage one is what login needs: the customers and their accounts (plus customers added in the journal).
+    // Stage two is the vehicles, the booking history and the rest of the journal, which only the dashboards need.
+    // The binary snapshot holds everything in one file, so with it the whole snapshot is read in stage one.
+    private static boolean snapshotLoaded = false;
+
+    // Set from the start of stage one until stage two is done. Logins already work in between and can journal a
+    // password change, if that takes the journal over COMPACTION_THRESHOLD the snapshot is put off until the load is
+    // complete (the records themselves are in the journal already). If stage two fails it stays set, so a partial
+    // fleet is never written over the files.
+    private static boolean loading = false;
+    private static boolean snapshotDeferred = false;
+
+    private static synchronized void setLoading(boolean value) {
+        loading = value;
+        if (!loading && snapshotDeferred) {
+            snapshotDeferred = false;
+            saveAllData();
+        }
+    }
+
+    public static void loadAccounts() {
+        setLoading(true);
+        synchronized (loadConflicts) {
+            loadConflicts.clear();
+        }
+        // Taxes and settings first, bookings saved without a price are priced as they are loaded
+        TaxRules.load(TAX_RULES_FILE);
+        loadSettings();
+
+        snapshotLoaded = false;
+        Boolean savedFormat = readFormat();
+        if (savedFormat != null) binarySnapshots = savedFormat;
+        if (binarySnapshots) {
+            try {
+                snapshotLoaded = BinarySnapshot.load(SNAPSHOT_FILE);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Error loading snapshot: " + e.getMessage());
+            }
+        }
+        if (!snapshotLoaded) {
+            loadCustomers();
+        }
+        replayJournal(true);
+    }
+
+    public static void loadFleetAndBookings() {
+        // Even if a loader throws, snapshots must not stay deferred for the rest of the session
+        try {
+            if (!snapshotLoaded) {
+                loadVehicles();
+                loadBookings();
+            }
+            replayJournal(false);
+        } finally {
+            setLoading(false);
+        }
+    }
+
+    // CSV import/export, used as the snapshot format by default and for moving data in and out of the binary format.
+    public static void exportCsv() {
+        try {
+            writeCsv(Customer.customers, Vehicle.savedVehicles(), new ArrayList<>(Booking.bookings));
+        } catch (IOException e) {
+            System.err.println("Error exporting CSV: " + e.getMessage());
+        }
+    }
+
+    private static void writeCsv(List<Customer> customers, List<Vehicle> vehicles, List<Booking> bookings) throws IOException {
+        saveCustomers(customers);
+        saveVehicles(vehicles);
+        saveBookings(bookings);
+    }
+
+    public static void importCsv() {
         loadCustomers();
         loadVehicles();
         loadBookings();
-        System.out.println("All data loaded successfully from CSV!");
     }
 
-    // Customer saving logic.
-    private static void saveCustomers() {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(CUSTOMERS_FILE))) {
-            for (Customer customer : Customer.customers) {
-                // Since we use commas as a way to separate the different fields, if a user enters a comma
-                // it may break our writer logic, so what we do is pretty simple, we replace any comma with a space.
-                writer.println(customer.getCustomerId() + "," +
-                        customer.getName().replace(",", " ") + "," +
-                        customer.getEmail().replace(",", " ") + "," +
-                        customer.getAccount().getUsername().replace(",", " ") + "," +
-                        customer.getAccount().getPassword() + "," +
-                        customer.getAccount().getRole());
+    // Journal records.
+    // Each mutation in the UI calls one of these instead of saveAllData(), so a click costs one appended line.
+
+    public static void logCustomerAdded(Customer customer) {
+        writeJournal(List.of("CUSTOMER_ADD," + customerLine(customer)));
+    }
+
+    // A login replaced the customer's stored password with a new hash (see AuthService).
+    public static void logPasswordChanged(Customer customer) {
+        writeJournal(List.of("CUSTOMER_PASSWORD," + customer.getCustomerId() + "," + customer.getAccount().getPassword()));
+    }
+
+    public static void logVehicleAdded(Vehicle vehicle) {
+        writeJournal(List.of("VEHICLE_ADD," + vehicleLine(vehicle) + "," + vehicleExtra(vehicle)));
+    }
+
+    public static void logVehicleRemoved(Vehicle vehicle) {
+        writeJournal(List.of("VEHICLE_REMOVE," + vehicle.getVehicleId()));
+    }
+
+    public static void logBookingAdded(Booking booking) {
+        writeJournal(List.of("BOOKING_ADD," + bookingLine(booking)));
+    }
+
+    public static void logBookingCancelled(Booking booking) {
+        writeJournal(List.of("BOOKING_CANCEL," + booking.getBookingId()));
+    }
+
+    // Expiry can complete many bookings at once, they all go to disk as a single group.
+    public static void logBookingsCompleted(List<Booking> completed) {
+        List<String> records = new ArrayList<>();
+        for (Booking booking : completed) {
+            records.add("BOOKING_COMPLETE," + booking.getBookingId());
+        }
+        writeJournal(records);
+    }
+
+    // Synchronized because expiries are journaled from the scheduler thread while the UI journals its own changes.
+    private static synchronized void writeJournal(List<String> records) {
+        if (records.isEmpty()) return;
+        if (!journalMode) {
+            saveAllData();
+            return;
+        }
+        persistence.submitJournal(records);
+        recordsSinceSnapshot += records.size();
+
+        // Compaction: fold the journal into a new snapshot once it gets long.
+        if (recordsSinceSnapshot >= COMPACTION_THRESHOLD) {
+            saveAllData();
+        }
+    }
+
+    // Applies the journal records on top of the snapshot we just loaded.
+    // Replay is idempotent (records are matched by ID), so a crash between writing a snapshot and
+    // clearing the journal doesn't create duplicates.
+    // 'accounts' picks the stage: true replays only the customer and password records, false everything else.
+    // Customer records don't depend on anything else in the journal, so splitting them out keeps the order that matters.
+    private static void replayJournal(boolean accounts) {
+        List<String> records;
+        try {
+            records = journal.readAll();
+        } catch (IOException e) {
+            System.err.println("Error reading journal: " + e.getMessage());
+            return;
+        }
+
+        for (String record : records) {
+            String[] parts = record.split(",");
+            if (parts[0].startsWith("CUSTOMER_") != accounts) continue;
+            try {
+                switch (parts[0]) {
+                    case "CUSTOMER_ADD":
+                        if (findCustomerById(Integer.parseInt(parts[1])) == null) restoreCustomer(parts, 1);
+                        break;
+                    case "CUSTOMER_PASSWORD":
+                        Customer changed = findCustomerById(Integer.parseInt(parts[1]));
+                        if (changed != null) changed.getAccount().setPassword(parts[2]);
+                        break;
+                    case "VEHICLE_ADD":
+                        if (findVehicleById(Integer.parseInt(parts[2])) == null) restoreVehicle(parts, 1, parts[7], false);
+                        break;
+                    case "VEHICLE_REMOVE":
+                        Vehicle vehicle = findVehicleById(Integer.parseInt(parts[1]));
+                        if (vehicle != null) Vehicle.removeVehicle(vehicle);
+                        break;
+                    case "BOOKING_ADD":
+                        if (findBookingById(Integer.parseInt(parts[1])) == null) {
+                            try {
+                                restoreBooking(parts, 1);
+                            } catch (VehicleNotAvailableException e) {
+                                System.err.println("Skipping booking " + parts[1] + ": " + e.getMessage());
+                            }
+                        }
+                        break;
+                    case "BOOKING_CANCEL":
+                        Booking cancelled = findBookingById(Integer.parseInt(parts[1]));
+                        if (cancelled != null) Booking.removeBooking(cancelled);
+                        break;
+                    case "BOOKING_COMPLETE":
+                        Booking completed = findBookingById(Integer.parseInt(parts[1]));
+                        if (completed != null) completed.setIsActive(false);
+                        break;
+                    default:
+                        System.err.println("Skipping unknown journal record: " + record);
+                }
+            } catch (RuntimeException e) {
+                // A torn last line (e.g. the app was killed mid-write) shouldn't stop the rest of the replay.
+                System.err.println("Skipping bad journal record: " + record);
+            }
+        }
+    }
+
+    // Every file is first written to a temporary file and then renamed over the old one,
+    // so a crash while saving never leaves a half written file behind.
+    private static PrintWriter openTemp(String path) throws IOException {
+        return new PrintWriter(new FileWriter(path + ".tmp"));
+    }
+
+    private static void commitTemp(String path) throws IOException {
+        Files.move(Paths.get(path + ".tmp"), Paths.get(path),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Settings are a couple of bytes, they are written straight away instead of going through the journal.
+    public static synchronized void saveSettings() {
+        try {
+            try (PrintWriter writer = openTemp(SETTINGS_FILE)) {
+                writer.println("dynamicPricing," + DynamicPricing.isEnabled());
+                if (writer.checkError()) throw new IOException("Error saving settings");
             }
+            commitTemp(SETTINGS_FILE);
         } catch (IOException e) {
-            System.err.println("Error saving customers: " + e.getMessage());
+            System.err.println("Error saving settings: " + e.getMessage());
         }
     }
 
+    private static void loadSettings() {
+        File file = new File(SETTINGS_FILE);
+        if (!file.exists()) return;
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split(",");
+                if (parts.length == 2 && parts[0].equals("dynamicPricing")) {
+                    DynamicPricing.setEnabled(Boolean.parseBoolean(parts[1].trim()));
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error loading settings: " + e.getMessage());
+        }
+    }
+
+    private static void writeFormat(boolean binary) throws IOException {
+        try (PrintWriter writer = openTemp(FORMAT_FILE)) {
+            writer.println(binary ? "binary" : "csv");
+            if (writer.checkError()) throw new IOException("Error saving snapshot format");
+        }
+        commitTemp(FORMAT_FILE);
+    }
+
+    // The format of the last snapshot, null for data folders from before it was recorded.
+    private static Boolean readFormat() {
+        try {
+            Path path = Paths.get(FORMAT_FILE);
+            if (!Files.exists(path)) return null;
+            String format = new String(Files.readAllBytes(path)).trim();
+            if (format.equals("binary")) return true;
+            if (format.equals("csv")) return false;
+        } catch (IOException e) {
+            System.err.println("Error reading snapshot format: " + e.getMessage());
+        }
+        return null;
+    }
+
+    // Customer saving logic.
+    private static void saveCustomers(List<Customer> customers) throws IOException {
+        try (PrintWriter writer = openTemp(CUSTOMERS_FILE)) {
+            for (Customer customer : customers) {
+                writer.println(customerLine(customer));
+            }
+            if (writer.checkError()) throw new IOException("Error saving customers");
+        }
+        commitTemp(CUSTOMERS_FILE);
+    }
+
+    // Since we use commas as a way to separate the different fields, if a user enters a comma
+    // it may break our writer logic, so what we do is pretty simple, we replace any comma with a space.
+    private static String customerLine(Customer customer) {
+        return customer.getCustomerId() + "," +
+                customer.getName().replace(",", " ") + "," +
+                customer.getEmail().replace(",", " ") + "," +
+                customer.getAccount().getUsername().replace(",", " ") + "," +
+                customer.getAccount().getPassword() + "," +
+                customer.getAccount().getRole();
+    }
+
     // Logic for customer loading.
     private static void loadCustomers() {
         File file = new File(CUSTOMERS_FILE);
@@ -64,57 +400,104 @@ public class DataManager {
 
         try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
             String line;
-            Customer.customers.clear(); // Clear memory to avoid duplicates
+            Customer.clearAll(); // Clear memory to avoid duplicates
 
             while ((line = reader.readLine()) != null) {
                 String[] parts = line.split(",");
                 // Basic validation to ensure the line isn't corrupted
                 if (parts.length >= 6) {
-                    String name = parts[1];
-                    String email = parts[2];
-                    String username = parts[3];
-                    String password = parts[4];
-                    char role = parts[5].charAt(0);
-
-                    // Reconstruct the Account and Customer objects in memory
-                    Account account = new Account(username, password, role);
-                    new Customer(name, email, account);
+                    restoreCustomer(parts, 0);
                 }
             }
-        } catch (IOException e) {
+        } catch (IOException | NumberFormatException e) {
             System.err.println("Error loading customers: " + e.getMessage());
         }
     }
 
+    // Reconstruct the Account and Customer objects in memory from the fields starting at 'offset'.
+    private static void restoreCustomer(String[] parts, int offset) {
+        restoreCustomer(Integer.parseInt(parts[offset]), parts[offset + 1], parts[offset + 2],
+                parts[offset + 3], parts[offset + 4], parts[offset + 5].charAt(0));
+    }
+
+    // Shared by the CSV loader, the journal replay and the binary snapshot.
+    // A username or email that a customer loaded earlier already has is kept anyway (older files allowed it),
+    // it is reported as a conflict for the admin (see getLoadConflicts()).
+    static Customer restoreCustomer(int id, String name, String email, String username, String password, char role) {
+        Account account = new Account(username, password, role);
+        Customer customer;
+        try {
+            customer = new Customer(name, email, account, true);
+        } catch (DuplicateKeyException e) {
+            // Only the non-loading constructor refuses duplicates
+            throw new IllegalStateException(e);
+        }
+        customer.restoreId(id); // Keep the saved ID, bookings refer to it
+        if (Customer.byUsername.find(username) != customer) {
+            reportConflict("Customer " + id + " has the same username as another customer: " + username);
+        }
+        if (Customer.byEmail.find(Customer.emailKey(email)) != customer) {
+            reportConflict("Customer " + id + " has the same email as another customer: " + email);
+        }
+        return customer;
+    }
+
+    // Duplicates found while loading (see restoreCustomer/restoreVehicle), shown to the admin.
+    private static final List<String> loadConflicts = new ArrayList<>();
+
+    private static void reportConflict(String message) {
+        System.err.println("Conflict: " + message);
+        synchronized (loadConflicts) {
+            loadConflicts.add(message);
+        }
+    }
+
+    public static List<String> getLoadConflicts() {
+        synchronized (loadConflicts) {
+            return new ArrayList<>(loadConflicts);
+        }
+    }
+
     // Vehicles saving and loading.
     // This is trickier because we have different types (Car, Bike, Van) with different data fields.
-    private static void saveVehicles() {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(VEHICLES_FILE))) {
-            for (Vehicle vehicle : Vehicle.allVehicles) {
-                // Get the type dynamically [Car, Van, Bike].
-                String type = vehicle.getClass().getSimpleName();
-
-                // Write the common data [ID, Model, Rate, etc...]
-                writer.println(type + "," +
-                        vehicle.getVehicleId() + "," +
-                        vehicle.getModel().replace(",", " ") + "," +
-                        vehicle.getLicenseNumber().replace(",", " ") + "," +
-                        vehicle.getDailyRate() + "," +
-                        vehicle.getIsAvailable());
+    private static void saveVehicles(List<Vehicle> vehicles) throws IOException {
+        try (PrintWriter writer = openTemp(VEHICLES_FILE)) {
+            for (Vehicle vehicle : vehicles) {
+                // Write the common data [ID, Model, Rate, etc...], deleted vehicles get a "removed" field at the end
+                writer.println(vehicleLine(vehicle) + (vehicle.isRemoved() ? "," + REMOVED_MARK : ""));
 
                 // Saving the specific properties of the vehicles.
                 // Check specific type and write a second line with unique data.
                 if (vehicle instanceof Car) {
-                    writer.println("CAR_DATA," + ((Car) vehicle).getIsAutmatic());
+                    writer.println("CAR_DATA," + vehicleExtra(vehicle));
                 } else if (vehicle instanceof Bike) {
-                    writer.println("BIKE_DATA," + ((Bike) vehicle).getHelmetInclude());
+                    writer.println("BIKE_DATA," + vehicleExtra(vehicle));
                 } else if (vehicle instanceof Van) {
-                    writer.println("VAN_DATA," + ((Van) vehicle).getLoadCapacityInclude());
+                    writer.println("VAN_DATA," + vehicleExtra(vehicle));
                 }
             }
-        } catch (IOException e) {
-            System.err.println("Error saving vehicles: " + e.getMessage());
+            if (writer.checkError()) throw new IOException("Error saving vehicles");
         }
+        commitTemp(VEHICLES_FILE);
+    }
+
+    private static String vehicleLine(Vehicle vehicle) {
+        // Get the type dynamically [Car, Van, Bike].
+        String type = vehicle.getClass().getSimpleName();
+        return type + "," +
+                vehicle.getVehicleId() + "," +
+                vehicle.getModel().replace(",", " ") + "," +
+                vehicle.getLicenseNumber().replace(",", " ") + "," +
+                vehicle.getDailyRate() + "," +
+                vehicle.getIsAvailable();
+    }
+
+    // The type specific value (automatic, helmet or load capacity).
+    private static String vehicleExtra(Vehicle vehicle) {
+        if (vehicle instanceof Car) return String.valueOf(((Car) vehicle).getIsAutmatic());
+        if (vehicle instanceof Bike) return String.valueOf(((Bike) vehicle).getHelmetInclude());
+        if (vehicle instanceof Van) return String.valueOf(((Van) vehicle).getLoadCapacityInclude());
+        return "";
     }
 
     // Logic for loading vehicles.
@@ -124,7 +507,7 @@ public class DataManager {
 
         try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
             String line;
-            Vehicle.allVehicles.clear();
+            Vehicle.clearAll();
 
             while ((line = reader.readLine()) != null) {
                 String[] parts = line.split(",");
@@ -133,31 +516,11 @@ public class DataManager {
                 if (parts.length >= 6 && !line.startsWith("CAR_DATA") &&
                         !line.startsWith("BIKE_DATA") && !line.startsWith("VAN_DATA")) {
 
-                    String type = parts[0];
-                    String model = parts[2];
-                    String license = parts[3];
-                    double rate = Double.parseDouble(parts[4]);
-                    boolean available = Boolean.parseBoolean(parts[5]);
-
                     // Read the NEXT line immediately to get the specific data for the specific type.
                     String dataLine = reader.readLine();
                     if (dataLine != null) {
                         String[] dataParts = dataLine.split(",");
-
-                        // Instantiate the correct subclass
-                        if ("Car".equals(type)) {
-                            boolean isAutomatic = Boolean.parseBoolean(dataParts[1]);
-                            Car car = new Car(model, license, rate, isAutomatic);
-                            car.setIsAvailable(available); // Restore availability state
-                        } else if ("Bike".equals(type)) {
-                            boolean helmet = Boolean.parseBoolean(dataParts[1]);
-                            Bike bike = new Bike(model, license, rate, helmet);
-                            bike.setIsAvailable(available);
-                        } else if ("Van".equals(type)) {
-                            double capacity = Double.parseDouble(dataParts[1]);
-                            Van van = new Van(model, license, rate, capacity);
-                            van.setIsAvailable(available);
-                        }
+                        restoreVehicle(parts, 0, dataParts[1], parts.length > 6 && REMOVED_MARK.equals(parts[6]));
                     }
                 }
             }
@@ -166,84 +529,137 @@ public class DataManager {
         }
     }
 
+    // Instantiates the correct subclass from the common fields (starting at 'offset') plus the type specific value.
+    private static Vehicle restoreVehicle(String[] parts, int offset, String extra, boolean removed) {
+        String type = parts[offset];
+        boolean flag = false;
+        double capacity = 0;
+        if ("Van".equals(type)) {
+            capacity = Double.parseDouble(extra);
+        } else {
+            flag = Boolean.parseBoolean(extra);
+        }
+        // parts[offset + 5] is the old availability flag, availability now comes from the bookings.
+        return restoreVehicle(type, Integer.parseInt(parts[offset + 1]), parts[offset + 2], parts[offset + 3],
+                Double.parseDouble(parts[offset + 4]), flag, capacity, removed);
+    }
+
+    // 'flag' is isAutomatic for a Car or helmetIncluded for a Bike, 'capacity' is only used by a Van.
+    // A vehicle that was saved as deleted is rebuilt as a tombstone, it doesn't hold on to its license plate.
+    // A plate that a vehicle loaded earlier already has is kept anyway and reported as a conflict.
+    static Vehicle restoreVehicle(String type, int id, String model, String license, double rate,
+                                  boolean flag, double capacity, boolean removed) {
+        Vehicle vehicle = null;
+        try {
+            if ("Car".equals(type)) {
+                vehicle = new Car(model, license, rate, flag, removed, true);
+            } else if ("Bike".equals(type)) {
+                vehicle = new Bike(model, license, rate, flag, removed, true);
+            } else if ("Van".equals(type)) {
+                vehicle = new Van(model, license, rate, capacity, removed, true);
+            }
+        } catch (DuplicateLicenseException e) {
+            // Only the public constructors refuse duplicates
+            throw new IllegalStateException(e);
+        }
+
+        if (vehicle != null) {
+            vehicle.restoreId(id); // Keep the saved ID, bookings refer to it
+            if (!removed && Vehicle.byLicense.find(Vehicle.licenseKey(license)) != vehicle) {
+                reportConflict("Vehicle " + id + " has the same license plate as another vehicle: " + license);
+            }
+        }
+        return vehicle;
+    }
+
     // Bookings link Customers and Vehicles together.
     // In the file, we only save the IDs. In memory, we need the actual Objects.
-    private static void saveBookings() {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(BOOKINGS_FILE))) {
-            for (Booking booking : Booking.bookings) {
-                // Save IDs instead of full objects to keep file small
-                writer.println(booking.getBookingId() + "," +
-                        booking.getStartDate() + "," +
-                        booking.getEndDate() + "," +
-                        booking.getCustomer().getCustomerId() + "," +
-                        booking.getBookedVehicle().getVehicleId() + "," +
-                        booking.isActive());
+    private static void saveBookings(List<Booking> bookings) throws IOException {
+        try (PrintWriter writer = openTemp(BOOKINGS_FILE)) {
+            for (Booking booking : bookings) {
+                writer.println(bookingLine(booking));
             }
-        } catch (IOException e) {
-            System.err.println("Error saving bookings: " + e.getMessage());
+            if (writer.checkError()) throw new IOException("Error saving bookings");
         }
+        commitTemp(BOOKINGS_FILE);
+    }
+
+    // Save IDs instead of full objects to keep file small
+    private static String bookingLine(Booking booking) {
+        return booking.getBookingId() + "," +
+                booking.getStartDate() + "," +
+                booking.getEndDate() + "," +
+                booking.getCustomer().getCustomerId() + "," +
+                booking.getBookedVehicle().getVehicleId() + "," +
+                booking.isActive() + "," +
+                booking.getCostCents();
     }
 
     // Loading the bookings.
+    // Goes through the parallel BookingImporter, so one bad line no longer stops the rest of the file from loading.
     private static void loadBookings() {
         File file = new File(BOOKINGS_FILE);
         if (!file.exists()) return;
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            Booking.bookings.clear();
-
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-
-                if (parts.length >= 6) {
-                    LocalDate startDate = LocalDate.parse(parts[1]);
-                    LocalDate endDate = LocalDate.parse(parts[2]);
-                    int customerId = Integer.parseInt(parts[3]);
-                    int vehicleId = Integer.parseInt(parts[4]);
-                    boolean isActiveFromFile = Boolean.parseBoolean(parts[5]);
-
-                    // Looking for the actual customer and vehicle via their respective IDs.
-                    Customer customer = findCustomerById(customerId);
-                    Vehicle vehicle = findVehicleById(vehicleId);
-
-                    if (customer != null && vehicle != null) {
-                        // Recreate the Booking Object
-                        Booking booking = new Booking(startDate, endDate, customer, vehicle);
-
-                        // Restore State:
-                        // Set booking active/inactive status
-                        booking.setIsActive(isActiveFromFile);
-
-                        // Sync Vehicle Availability
-                        // If the booking is still active, the car MUST be unavailable.
-                        // If the booking is done, the car MUST be available.
-                        if (!isActiveFromFile) {
-                            vehicle.setIsAvailable(true);
-                        } else {
-                            vehicle.setIsAvailable(false);
-                        }
-                    }
-                }
+        Booking.clearAll();
+        try {
+            ImportReport report = BookingImporter.importFile(BOOKINGS_FILE);
+            for (ImportReport.RowError error : report.getErrors()) {
+                System.err.println("Error loading bookings: " + error);
             }
-        } catch (IOException | NumberFormatException e) {
+        } catch (IOException e) {
             System.err.println("Error loading bookings: " + e.getMessage());
         }
     }
 
+    // Bulk import mode, used to migrate booking history into the system.
+    // The rows are added on top of the current bookings, and a snapshot is written afterwards
+    // since imported rows don't go through the journal.
+    public static ImportReport importBookings(String path) throws IOException {
+        ImportReport report = BookingImporter.importFile(path);
+        System.out.println(report.summary());
+        if (report.getImported() > 0) saveAllData();
+        return report;
+    }
+
+    // Recreates one booking from the fields starting at 'offset'.
+    // The cost field was added later, records without it get -1 (quoted again).
+    private static void restoreBooking(String[] parts, int offset) throws VehicleNotAvailableException {
+        long cost = parts.length > offset + 6 ? Long.parseLong(parts[offset + 6]) : -1;
+        restoreBooking(Integer.parseInt(parts[offset]), LocalDate.parse(parts[offset + 1]), LocalDate.parse(parts[offset + 2]),
+                Integer.parseInt(parts[offset + 3]), Integer.parseInt(parts[offset + 4]), Boolean.parseBoolean(parts[offset + 5]),
+                cost);
+    }
+
+    // 'costCents' is the quote saved with the booking, negative if there is none.
+    // Throws if an active booking overlaps another active booking of its vehicle (the file is left as it is).
+    static Booking restoreBooking(int id, LocalDate startDate, LocalDate endDate, int customerId, int vehicleId,
+                                  boolean isActiveFromFile, long costCents) throws VehicleNotAvailableException {
+        // Looking for the actual customer and vehicle via their respective IDs.
+        Customer customer = findCustomerById(customerId);
+        Vehicle vehicle = findVehicleById(vehicleId);
+
+        if (customer != null && vehicle != null) {
+            // Recreate the Booking Object, with its active/completed state (only active ones hold dates)
+            Booking booking = new Booking(startDate, endDate, customer, vehicle, isActiveFromFile, costCents);
+            booking.restoreId(id);
+            return booking;
+        }
+        return null;
+    }
+
     // Looks for the specific customer by their ID.
     private static Customer findCustomerById(int id) {
-        for (Customer customer : Customer.customers) {
-            if (customer.getCustomerId() == id) return customer;
-        }
-        return null; // Should ideally handle this case [Deleted users, if such thing exists].
+        return Registry.customerById(id); // Null for deleted users, if such thing exists.
     }
 
     // Looks for the specific vehicle by its ID.
     private static Vehicle findVehicleById(int id) {
-        for (Vehicle vehicle : Vehicle.allVehicles) {
-            if (vehicle.getVehicleId() == id) return vehicle;
-        }
-        return null;
+        return Registry.vehicleById(id);
+    }
+
+    // Looks for the specific booking by its ID (used when replaying the journal).
+    private static Booking findBookingById(int id) {
+        return Registry.bookingById(id);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,169 @@
+package model;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+// Demand based pricing: when most vehicles of a type are booked on a day, that day costs more.
+// Off by default (setEnabled), then every vehicle just costs its daily rate.
+//
+// For every vehicle type and every day of the next HORIZON_DAYS days we keep:
+//   - how many vehicles of that type are booked that day (updated by AvailabilityCalendar as bookings come and go),
+//   - the price multiplier that occupancy gives on the type's surge curve,
+//   - a running sum (prefix sum) of those multipliers.
+// The price of a rental is then rate * (sum of the multipliers of its days), and thanks to the prefix sums that sum
+// is one subtraction however long the rental is, so a quote is a couple of array reads.
+//
+// Updates are cheap too: a booking only changes the counters of its own days, and the prefix sums are only
+// rebuilt from the earliest changed day, the next time someone asks for a quote.
+// Multipliers are in basis points like tax (10000 = normal price, 12500 = +25%). Days outside the horizon cost normal price.
+public class DynamicPricing {
+
+    public static final int HORIZON_DAYS = 400;
+    private static final int NORMAL = 10_000;
+    private static final int TYPES = VehicleType.values().length;
+
+    private static boolean enabled;
+
+    // Day 0 of the tables
+    private static long originDay = LocalDate.now().toEpochDay();
+
+    private static final int[][] booked = new int[TYPES][HORIZON_DAYS];
+    private static final long[][] prefix = new long[TYPES][HORIZON_DAYS + 1];
+    private static final int[] fleetSize = new int[TYPES];
+    // Prefix sums of a type are valid below this day, HORIZON_DAYS = all valid
+    private static final int[] dirtyFrom = new int[TYPES];
+
+    // Surge curve per type: occupancy in percent (0..100) -> multiplier
+    private static final int[][] curves = new int[TYPES][101];
+
+    static {
+        for (int type = 0; type < TYPES; type++) {
+            // Default curve: normal price up to half the fleet booked, then +10%, +25% and +50% when nearly full
+            setCurve(type, new int[] {0, 50, 75, 90}, new double[] {1.0, 1.10, 1.25, 1.50});
+        }
+    }
+
+    public static synchronized boolean isEnabled() { return enabled; }
+    public static synchronized void setEnabled(boolean enabled) { DynamicPricing.enabled = enabled; }
+
+    // Sets the surge curve of a type as steps: from thresholds[i] percent occupancy on, the price is multipliers[i] times the rate.
+    // thresholds must start at 0 and go up, e.g. {0, 80} with {1.0, 1.3} means +30% once 80% of the fleet is booked.
+    public static synchronized void setSurgeCurve(VehicleType type, int[] thresholds, double[] multipliers) {
+        setCurve(type.ordinal(), thresholds, multipliers);
+    }
+
+    // Multiplier for that type and day in basis points.
+    public static synchronized int multiplier(VehicleType type, LocalDate day) {
+        rollOver();
+        int t = type.ordinal();
+        int d = (int) (day.toEpochDay() - originDay);
+        if (d < 0 || d >= HORIZON_DAYS) return NORMAL;
+        refresh(t);
+        return (int) (prefix[t][d + 1] - prefix[t][d]);
+    }
+
+    // Booked vehicles of that type divided by the fleet size of that type, in percent.
+    public static synchronized int occupancyPercent(VehicleType type, LocalDate day) {
+        rollOver();
+        int t = type.ordinal();
+        int d = (int) (day.toEpochDay() - originDay);
+        if (d < 0 || d >= HORIZON_DAYS) return 0;
+        refresh(t);
+        return occupancy(t, d);
+    }
+
+    // The vehicle's daily rate on that day, in cents, rounded half-up like subtotalCents().
+    public static long effectiveRateCents(Vehicle vehicle, LocalDate day) {
+        return PricingEngine.roundHalfUp(vehicle.getRateCents() * multiplier(vehicle.getVehicleType(), day), NORMAL);
+    }
+
+    // Price before tax of renting the vehicle for the days [startDay, endDay), at least one day.
+    public static synchronized long subtotalCents(Vehicle vehicle, long startDay, long endDay) {
+        if (endDay <= startDay) endDay = startDay + 1;
+        rollOver();
+        int t = vehicle.getVehicleType().ordinal();
+        refresh(t);
+
+        // Part inside the horizon comes from the prefix sums, days outside it cost the normal price.
+        long from = Math.max(0, Math.min(HORIZON_DAYS, startDay - originDay));
+        long to = Math.max(0, Math.min(HORIZON_DAYS, endDay - originDay));
+        long multipliers = prefix[t][(int) to] - prefix[t][(int) from];
+        multipliers += ((endDay - startDay) - (to - from)) * NORMAL;
+
+        return PricingEngine.roundHalfUp(vehicle.getRateCents() * multipliers, NORMAL);
+    }
+
+    // --- Updates ---
+
+    // Called by the AvailabilityCalendar when a booking starts or stops occupying its vehicle.
+    static synchronized void bookingChanged(Booking booking, boolean reserved) {
+        int t = booking.getBookedVehicle().getVehicleType().ordinal();
+        int from = (int) Math.max(0, AvailabilityCalendar.firstDay(booking) - originDay);
+        int to = (int) Math.min(HORIZON_DAYS, AvailabilityCalendar.endDay(booking) - originDay);
+        if (from >= to) return;
+        int delta = reserved ? 1 : -1;
+        for (int d = from; d < to; d++) booked[t][d] += delta;
+        dirtyFrom[t] = Math.min(dirtyFrom[t], from);
+    }
+
+    // Called by the VehicleIndex, a different fleet size changes every day's occupancy of that type.
+    static synchronized void fleetChanged(VehicleType type, int size) {
+        fleetSize[type.ordinal()] = size;
+        dirtyFrom[type.ordinal()] = 0;
+    }
+
+    // Used by the loaders together with clearing the booking list.
+    static synchronized void clearBookings() {
+        for (int t = 0; t < TYPES; t++) {
+            Arrays.fill(booked[t], 0);
+            dirtyFrom[t] = 0;
+        }
+    }
+
+    // --- Internals ---
+
+    // The tables start today. On a new day they're rebuilt from the active bookings (once a day).
+    private static void rollOver() {
+        long today = LocalDate.now().toEpochDay();
+        if (today == originDay) return;
+        originDay = today;
+        clearBookings();
+        ArrayList<Booking> all;
+        synchronized (Booking.bookings) {
+            all = new ArrayList<>(Booking.bookings);
+        }
+        for (Booking booking : all) {
+            if (booking.isActive()) bookingChanged(booking, true);
+        }
+    }
+
+    // Rebuilds the prefix sums of a type from the first changed day on.
+    private static void refresh(int t) {
+        int from = dirtyFrom[t];
+        if (from >= HORIZON_DAYS) return;
+        long[] sums = prefix[t];
+        int[] curve = curves[t];
+        for (int d = from; d < HORIZON_DAYS; d++) {
+            sums[d + 1] = sums[d] + curve[occupancy(t, d)];
+        }
+        dirtyFrom[t] = HORIZON_DAYS;
+    }
+
+    private static int occupancy(int t, int d) {
+        if (fleetSize[t] == 0) return 0;
+        return (int) Math.min(100, (long) booked[t][d] * 100 / fleetSize[t]);
+    }
+
+    private static void setCurve(int type, int[] thresholds, double[] multipliers) {
+        if (thresholds.length == 0 || thresholds.length != multipliers.length || thresholds[0] != 0) {
+            throw new IllegalArgumentException("A surge curve needs matching steps starting at 0%");
+        }
+        int step = 0;
+        for (int percent = 0; percent <= 100; percent++) {
+            while (step + 1 < thresholds.length && percent >= thresholds[step + 1]) step++;
+            curves[type][percent] = PricingEngine.toBasisPoints(multipliers[step]);
+        }
+        dirtyFrom[type] = 0;
+    }
+}
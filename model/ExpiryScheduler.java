@@ -0,0 +1,113 @@
+package model;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+// Returns vehicles automatically when their booking ends, also while the application is running.
+// Before, Booking.checkExpiry() only ran once at startup and scanned every booking ever made.
+// Now every active booking sits in a priority queue ordered by end date, and a background thread sleeps until the
+// earliest one is due. When it wakes up it only looks at the bookings at the head of the queue that are actually due.
+//
+// A booking is due once today is after its end date (same rule as before), so at midnight starting the day after it ends.
+// Bookings that are cancelled or completed in the meantime stay in the queue and are simply skipped when they come up.
+public class ExpiryScheduler {
+
+    // Earliest end date first, then by ID so the order is always the same.
+    private static final PriorityQueue<Booking> queue = new PriorityQueue<>(
+            Comparator.comparing(Booking::getEndDate).thenComparingInt(Booking::getBookingId));
+
+    // Don't sleep longer than this, so a changed system clock or time zone is picked up eventually.
+    private static final long MAX_SLEEP_MILLIS = 60 * 60 * 1000;
+
+    private static Thread worker;
+
+    // Called whenever a booking becomes active (created, loaded or reactivated).
+    static void schedule(Booking booking) {
+        synchronized (queue) {
+            Booking head = queue.peek();
+            queue.add(booking);
+            // New earliest booking, wake the worker up so it recalculates how long to sleep.
+            if (head == null || queue.peek() == booking) queue.notifyAll();
+        }
+    }
+
+    // Used by the loaders together with clearing the booking list.
+    static void clear() {
+        synchronized (queue) {
+            queue.clear();
+        }
+    }
+
+    public static int size() {
+        synchronized (queue) {
+            return queue.size();
+        }
+    }
+
+    // Completes every booking that is due right now and returns them. The caller persists the change.
+    public static List<Booking> expireDue() {
+        List<Booking> due = takeDue(LocalDate.now());
+        List<Booking> expired = new ArrayList<>();
+        for (Booking book : due) {
+            // Skip bookings that were completed or cancelled after being queued.
+            if (!book.isActive() || Registry.bookingById(book.getBookingId()) != book) continue;
+            // Mark booking as completed and free up the vehicle so others can rent it
+            book.getCustomer().returnVehicle(book);
+            System.out.println("Booking " + book.getBookingId() + " expired and was auto-returned.");
+            expired.add(book);
+        }
+        return expired;
+    }
+
+    // Starts the background thread, it writes every expiry it handles to the journal.
+    public static synchronized void start() {
+        if (worker != null) return;
+        worker = new Thread(ExpiryScheduler::run, "expiry-scheduler");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    private static void run() {
+        while (true) {
+            try {
+                waitUntilDue();
+            } catch (InterruptedException e) {
+                return;
+            }
+            DataManager.logBookingsCompleted(expireDue());
+        }
+    }
+
+    // Blocks until the head of the queue is due.
+    private static void waitUntilDue() throws InterruptedException {
+        synchronized (queue) {
+            while (true) {
+                Booking head = queue.peek();
+                if (head == null) {
+                    queue.wait();
+                    continue;
+                }
+                long dueAt = head.getEndDate().plusDays(1).atStartOfDay(ZoneId.systemDefault())
+                        .toInstant().toEpochMilli();
+                long sleep = dueAt - System.currentTimeMillis();
+                if (sleep <= 0) return;
+                queue.wait(Math.min(sleep, MAX_SLEEP_MILLIS));
+            }
+        }
+    }
+
+    // Removes and returns the bookings whose end date is before 'today'.
+    private static List<Booking> takeDue(LocalDate today) {
+        List<Booking> due = new ArrayList<>();
+        synchronized (queue) {
+            while (!queue.isEmpty() && today.isAfter(queue.peek().getEndDate())) {
+                due.add(queue.poll());
+            }
+        }
+        return due;
+    }
+}
@@ -0,0 +1,187 @@
+package model;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+// Reports over the whole booking history, for the admin Reports tab.
+// They work on a Snapshot (copies of the vehicle and booking lists taken at one moment), so they can run on a
+// background thread while the UI keeps changing the real lists. The heavy part of each report is a parallel stream
+// over the bookings, which spreads the work over every core.
+//
+// Every booking in the system counts (active and completed, cancelled ones are gone from the list).
+// The period a report covers goes from the first day any booking starts to the last day any booking ends.
+public class FleetAnalytics {
+
+    // How many rows the ranking reports show
+    public static final int TOP = 20;
+
+    // Read-only copy of the data the reports look at.
+    public static class Snapshot {
+        final List<Vehicle> vehicles;
+        final List<Booking> bookings;
+        final long firstDay; // Period covered, [firstDay, endDay)
+        final long endDay;
+
+        private Snapshot(List<Vehicle> vehicles, List<Booking> bookings) {
+            this.vehicles = vehicles;
+            this.bookings = bookings;
+            this.firstDay = bookings.parallelStream().mapToLong(AvailabilityCalendar::firstDay).min().orElse(0);
+            this.endDay = bookings.parallelStream().mapToLong(AvailabilityCalendar::endDay).max().orElse(0);
+        }
+
+        // Call this on the thread that changes the lists (the FX thread), then hand the snapshot to a background thread.
+        public static Snapshot take() {
+            // Deleted vehicles are left out, their bookings still count towards the booking based reports
+            List<Vehicle> vehicles = new ArrayList<>();
+            for (Vehicle vehicle : Vehicle.savedVehicles()) {
+                if (!vehicle.isRemoved()) vehicles.add(vehicle);
+            }
+            return new Snapshot(vehicles, new ArrayList<>(Booking.bookings));
+        }
+
+        public long getPeriodDays() { return Math.max(0, endDay - firstDay); }
+        public int getBookingCount() { return bookings.size(); }
+        public int getVehicleCount() { return vehicles.size(); }
+    }
+
+    // Result of one report: a title, its lines of text and how long it took.
+    public static class Report {
+        private final String title;
+        private final List<String> lines;
+        private long elapsedMillis;
+
+        Report(String title, List<String> lines) {
+            this.title = title;
+            this.lines = lines;
+        }
+
+        public String getTitle() { return title; }
+        public List<String> getLines() { return lines; }
+        public long getElapsedMillis() { return elapsedMillis; }
+
+        @Override
+        public String toString() {
+            return title + " (" + elapsedMillis + " ms)\n  " + String.join("\n  ", lines);
+        }
+    }
+
+    // Runs every report one after the other (each one is parallel inside).
+    public static List<Report> runAll(Snapshot snapshot) {
+        List<Report> reports = new ArrayList<>();
+        reports.add(timed(() -> utilization(snapshot)));
+        reports.add(timed(() -> revenueByMonthAndType(snapshot)));
+        reports.add(timed(() -> averageRentalLength(snapshot)));
+        reports.add(timed(() -> idleRanking(snapshot)));
+        return reports;
+    }
+
+    // Days each vehicle was booked during the period, in the same order as the snapshot's vehicles
+    // (0 for vehicles without bookings). Read from each vehicle's OccupancyBitmap instead of walking the bookings,
+    // so it reflects the bitmaps when the report runs (a booking cancelled after the snapshot no longer counts).
+    public static long[] bookedDays(Snapshot snapshot) {
+        return OccupancyBitmap.bookedDays(snapshot.vehicles, snapshot.firstDay, snapshot.endDay);
+    }
+
+    // Share of the period each vehicle was rented out, busiest first.
+    public static Report utilization(Snapshot snapshot) {
+        long period = snapshot.getPeriodDays();
+        long[] days = bookedDays(snapshot);
+        List<String> lines = new ArrayList<>();
+        if (period == 0) {
+            lines.add("No bookings yet");
+            return new Report("Utilization per vehicle", lines);
+        }
+
+        double average = Arrays.stream(days).average().orElse(0) * 100.0 / period;
+        lines.add(String.format("Fleet average: %.1f%% of %d days", average, period));
+        int[] order = FleetStore.order(days); // Least booked first
+        for (int i = order.length - 1; i >= Math.max(0, order.length - TOP); i--) {
+            long booked = days[order[i]];
+            lines.add(String.format("%-30s %5.1f%%  (%d days)",
+                    describe(snapshot.vehicles.get(order[i])), booked * 100.0 / period, booked));
+        }
+        return new Report("Utilization per vehicle (top " + TOP + ")", lines);
+    }
+
+    // Revenue per month (of the start date) and vehicle type.
+    public static Report revenueByMonthAndType(Snapshot snapshot) {
+        int types = VehicleType.values().length;
+        // Month -> cents per type ordinal, merged from the parallel parts
+        Map<YearMonth, long[]> byMonth = snapshot.bookings.parallelStream()
+                .collect(Collectors.toConcurrentMap(
+                        booking -> YearMonth.from(booking.getStartDate()),
+                        booking -> {
+                            long[] cents = new long[types];
+                            cents[booking.getBookedVehicle().getVehicleType().ordinal()] = booking.getCostCents();
+                            return cents;
+                        },
+                        (a, b) -> {
+                            for (int i = 0; i < types; i++) a[i] += b[i];
+                            return a;
+                        }));
+
+        List<String> lines = new ArrayList<>();
+        for (Map.Entry<YearMonth, long[]> month : new TreeMap<>(byMonth).entrySet()) {
+            StringBuilder line = new StringBuilder(month.getKey().toString());
+            long total = 0;
+            for (VehicleType type : VehicleType.values()) {
+                long cents = month.getValue()[type.ordinal()];
+                total += cents;
+                line.append("  ").append(type.getLabel()).append(": ").append(PricingEngine.format(cents));
+            }
+            lines.add(line.append("  Total: ").append(PricingEngine.format(total)).toString());
+        }
+        if (lines.isEmpty()) lines.add("No bookings yet");
+        return new Report("Revenue by month and type", lines);
+    }
+
+    // Average number of days per rental, overall and per type.
+    public static Report averageRentalLength(Snapshot snapshot) {
+        Map<VehicleType, Double> byType = snapshot.bookings.parallelStream()
+                .collect(Collectors.groupingByConcurrent(booking -> booking.getBookedVehicle().getVehicleType(),
+                        Collectors.averagingLong(Booking::getDays)));
+        double overall = snapshot.bookings.parallelStream().mapToLong(Booking::getDays).average().orElse(0);
+
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format("All vehicles: %.2f days (%d bookings)", overall, snapshot.bookings.size()));
+        for (VehicleType type : VehicleType.values()) {
+            Double average = byType.get(type);
+            if (average != null) lines.add(String.format("%s: %.2f days", type.getLabel(), average));
+        }
+        return new Report("Average rental length", lines);
+    }
+
+    // Vehicles that sat unused the longest during the period.
+    public static Report idleRanking(Snapshot snapshot) {
+        long period = snapshot.getPeriodDays();
+        List<String> lines = new ArrayList<>();
+        long[] days = bookedDays(snapshot);
+        int[] order = FleetStore.order(days);
+        for (int i = 0; i < Math.min(TOP, order.length); i++) {
+            lines.add(String.format("%-30s %d idle days",
+                    describe(snapshot.vehicles.get(order[i])), Math.max(0, period - days[order[i]])));
+        }
+        if (lines.isEmpty()) lines.add("No vehicles");
+        return new Report("Most idle vehicles (top " + TOP + ")", lines);
+    }
+
+    private static String describe(Vehicle vehicle) {
+        return "#" + vehicle.getVehicleId() + " " + vehicle.getModel();
+    }
+
+    private interface ReportTask {
+        Report run();
+    }
+
+    private static Report timed(ReportTask task) {
+        long start = System.nanoTime();
+        Report report = task.run();
+        report.elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        return report;
+    }
+}
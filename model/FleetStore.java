@@ -0,0 +1,206 @@
+package model;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+
+// Column storage for the vehicle attributes, one row per vehicle.
+// Instead of every Vehicle holding its own Strings and numbers, the fleet keeps one array per attribute:
+//   ids, rates (and the same in cents), type codes, load capacities   -> int[] / double[] / long[] / byte[]
+//   automatic (Car) or helmet included (Bike)                         -> one BitSet, one bit per row
+//   license plate                                                     -> String[], plates are unique anyway
+//   model and the "$50.00/day" text                                   -> int[] codes into a string dictionary
+// A Vehicle is just a view on its row (Vehicle.store + Vehicle.row), the getters read the columns. Models and rates
+// repeat a lot across a big fleet, so each distinct string is kept once, and ranking by an attribute (search results
+// by rate, see order()) sorts plain numbers instead of comparing Vehicle objects.
+// The rate and type filters of VehicleQuery still walk the VehicleIndex rate buckets, those already hand out the
+// vehicles in rate order without sorting anything.
+//
+// A deleted vehicle keeps its row while bookings point to it (tombstones still show up in the booking history).
+// Once VehicleCompactor drops it for good the row goes on a free list and the next new vehicle gets it.
+// The dictionary counts the rows using each string and forgets a string when the last of them is released.
+// Loading the data starts a new store (reset()), views made before that keep reading the old one.
+//
+// Writes lock the store. The columns are swapped for bigger copies as the fleet grows, they are volatile so a reader
+// on another thread (reports, the compactor) never sees a new array before its contents were copied.
+// Availability isn't a column, it depends on the date and comes from each vehicle's AvailabilityCalendar.
+class FleetStore {
+
+    private static final int INITIAL_ROWS = 1024;
+
+    private static volatile FleetStore current = new FleetStore();
+
+    private volatile int size;
+    private volatile int[] ids = new int[INITIAL_ROWS];
+    private volatile double[] rates = new double[INITIAL_ROWS];
+    private volatile long[] rateCents = new long[INITIAL_ROWS];
+    private volatile byte[] types = new byte[INITIAL_ROWS];
+    private volatile double[] capacities = new double[INITIAL_ROWS];
+    private volatile int[] models = new int[INITIAL_ROWS];
+    private volatile String[] licenses = new String[INITIAL_ROWS];
+    private volatile int[] rateLabels = new int[INITIAL_ROWS];
+    private final BitSet flags = new BitSet();
+    // Rows given back by release(), handed out again by add() before the columns grow
+    private int[] freeRows = new int[16];
+    private int freeCount;
+
+    private final Dictionary strings = new Dictionary();
+
+    // The store new vehicles go into.
+    static FleetStore current() {
+        return current;
+    }
+
+    // Starts an empty store, called by Vehicle.clearAll() before the loaders rebuild the fleet.
+    static void reset() {
+        current = new FleetStore();
+    }
+
+    // Adds a row for a new vehicle and returns it. The ID is filled in once the vehicle has passed the checks.
+    synchronized int add(String model, String license, double rate, VehicleType type) {
+        int row;
+        if (freeCount > 0) {
+            row = freeRows[--freeCount];
+        } else {
+            row = size;
+            if (row == ids.length) grow(row * 2);
+            size = row + 1;
+        }
+        long cents = PricingEngine.toCents(rate);
+        ids[row] = -1;
+        rates[row] = rate;
+        rateCents[row] = cents;
+        types[row] = (byte) type.ordinal();
+        models[row] = strings.encode(model);
+        licenses[row] = license;
+        rateLabels[row] = strings.encode(PricingEngine.format(cents) + "/day");
+        return row;
+    }
+
+    // Gives a row back: the vehicle was refused (duplicate plate), or dropped for good by the compaction.
+    synchronized void release(int row) {
+        ids[row] = -1;
+        flags.clear(row);
+        capacities[row] = 0;
+        licenses[row] = null;
+        strings.release(models[row]);
+        strings.release(rateLabels[row]);
+        if (freeCount == freeRows.length) freeRows = Arrays.copyOf(freeRows, freeCount * 2);
+        freeRows[freeCount++] = row;
+    }
+
+    synchronized void setId(int row, int id) { ids[row] = id; }
+    synchronized void setFlag(int row, boolean flag) { flags.set(row, flag); }
+    synchronized void setCapacity(int row, double capacity) { capacities[row] = capacity; }
+
+    // --- Reading one row ---
+
+    int id(int row) { return ids[row]; }
+    double rate(int row) { return rates[row]; }
+    long rateCents(int row) { return rateCents[row]; }
+    VehicleType type(int row) { return VehicleType.values()[types[row]]; }
+    double capacity(int row) { return capacities[row]; }
+    String model(int row) { return strings.decode(models[row]); }
+    String license(int row) { return licenses[row]; }
+    String rateLabel(int row) { return strings.decode(rateLabels[row]); }
+
+    // Automatic for a Car, helmet included for a Bike. BitSet isn't thread safe, so this one locks too.
+    synchronized boolean flag(int row) { return flags.get(row); }
+
+    // Rows in use (the columns' high-water mark minus the free rows).
+    synchronized int size() { return size - freeCount; }
+
+    // Distinct strings in the dictionary, to see how well it shares them.
+    synchronized int distinctStrings() { return strings.size(); }
+
+    // --- Whole columns ---
+
+    // Positions 0..n-1 ordered by their key, equal keys keep their position order.
+    // Keys and positions are packed into one long and sorted as plain numbers, so nothing gets boxed.
+    // Keys that don't fit in 31 bits (or are negative) fall back to a boxed sort.
+    static int[] order(long[] keys) {
+        int n = keys.length;
+        int[] order = new int[n];
+        boolean packable = true;
+        for (long key : keys) {
+            if (key < 0 || key > Integer.MAX_VALUE) {
+                packable = false;
+                break;
+            }
+        }
+        if (packable) {
+            long[] packed = new long[n];
+            for (int i = 0; i < n; i++) packed[i] = keys[i] << 32 | i;
+            Arrays.sort(packed);
+            for (int i = 0; i < n; i++) order[i] = (int) packed[i];
+            return order;
+        }
+        Integer[] boxed = new Integer[n];
+        for (int i = 0; i < n; i++) boxed[i] = i;
+        Arrays.sort(boxed, (a, b) -> Long.compare(keys[a], keys[b])); // Stable (merge sort)
+        for (int i = 0; i < n; i++) order[i] = boxed[i];
+        return order;
+    }
+
+    private void grow(int rows) {
+        ids = Arrays.copyOf(ids, rows);
+        rates = Arrays.copyOf(rates, rows);
+        rateCents = Arrays.copyOf(rateCents, rows);
+        types = Arrays.copyOf(types, rows);
+        capacities = Arrays.copyOf(capacities, rows);
+        models = Arrays.copyOf(models, rows);
+        licenses = Arrays.copyOf(licenses, rows);
+        rateLabels = Arrays.copyOf(rateLabels, rows);
+    }
+
+    // Every distinct string gets a code (its position), the rows store the code.
+    // Each code counts the rows using it, a code nobody uses any more is freed and handed out again.
+    // Only the store's writers encode and release (under the store's lock), anyone can decode.
+    private static class Dictionary {
+        private final HashMap<String, Integer> codes = new HashMap<>();
+        private volatile String[] values = new String[256];
+        private int[] counts = new int[256];
+        private int end; // Codes handed out so far, free ones included
+        private int[] freeCodes = new int[16];
+        private int freeCount;
+
+        int encode(String value) {
+            Integer code = codes.get(value);
+            if (code != null) {
+                counts[code]++;
+                return code;
+            }
+            int newCode;
+            if (freeCount > 0) {
+                newCode = freeCodes[--freeCount];
+            } else {
+                if (end == values.length) {
+                    values = Arrays.copyOf(values, end * 2);
+                    counts = Arrays.copyOf(counts, end * 2);
+                }
+                newCode = end++;
+            }
+            values[newCode] = value;
+            counts[newCode] = 1;
+            codes.put(value, newCode);
+            return newCode;
+        }
+
+        // One row less uses the code.
+        void release(int code) {
+            if (--counts[code] > 0) return;
+            codes.remove(values[code]);
+            values[code] = null;
+            if (freeCount == freeCodes.length) freeCodes = Arrays.copyOf(freeCodes, freeCount * 2);
+            freeCodes[freeCount++] = code;
+        }
+
+        String decode(int code) {
+            return values[code];
+        }
+
+        int size() {
+            return codes.size();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Result of a bulk import (see BookingImporter).
+// Instead of stopping at the first bad line, the importer keeps going and lists every rejected row here.
+public class ImportReport {
+
+    // One rejected row: its line number in the file and why it was rejected.
+    public static class RowError {
+        private final long line;
+        private final String message;
+
+        public RowError(long line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+
+        public long getLine() { return line; }
+        public String getMessage() { return message; }
+
+        @Override
+        public String toString() {
+            return "Line " + line + ": " + message;
+        }
+    }
+
+    private final String file;
+    private long rowsRead;
+    private long imported;
+    private long elapsedMillis;
+    private final List<RowError> errors = new ArrayList<>();
+
+    public ImportReport(String file) {
+        this.file = file;
+    }
+
+    public String getFile() { return file; }
+    public long getRowsRead() { return rowsRead; }
+    public long getImported() { return imported; }
+    public long getElapsedMillis() { return elapsedMillis; }
+    public List<RowError> getErrors() { return errors; }
+    public boolean hasErrors() { return !errors.isEmpty(); }
+
+    void setRowsRead(long rowsRead) { this.rowsRead = rowsRead; }
+    void setImported(long imported) { this.imported = imported; }
+    void setElapsedMillis(long elapsedMillis) { this.elapsedMillis = elapsedMillis; }
+    void addError(long line, String message) { errors.add(new RowError(line, message)); }
+
+    // One line summary for the console.
+    public String summary() {
+        return "Imported " + imported + " of " + rowsRead + " rows from " + file +
+                " in " + elapsedMillis + " ms (" + errors.size() + " rejected)";
+    }
+}
@@ -0,0 +1,133 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// A small hash map from int keys to objects.
+// Unlike HashMap<Integer, V> the keys are kept in a plain int[] (no boxing), and collisions are handled with
+// linear probing inside the arrays, so a lookup is a couple of array reads.
+class IntMap<V> {
+
+    private int[] keys;
+    private Object[] values; // null means the slot is empty
+    private int size;
+
+    IntMap() {
+        this(16);
+    }
+
+    IntMap(int expectedSize) {
+        int capacity = 16;
+        while (capacity * 3 / 4 < expectedSize) capacity <<= 1; // Keep the table at most 75% full
+        keys = new int[capacity];
+        values = new Object[capacity];
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(int key) {
+        int mask = keys.length - 1;
+        for (int slot = hash(key) & mask; values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) return (V) values[slot];
+        }
+        return null;
+    }
+
+    boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    // Returns the previous value stored under 'key', or null.
+    @SuppressWarnings("unchecked")
+    V put(int key, V value) {
+        if (value == null) throw new IllegalArgumentException("IntMap doesn't store null values");
+        if ((size + 1) * 4 > keys.length * 3) grow();
+
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (values[slot] != null) {
+            if (keys[slot] == key) {
+                V old = (V) values[slot];
+                values[slot] = value;
+                return old;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+        return null;
+    }
+
+    // Removes 'key' and returns its value, or null if it wasn't there.
+    @SuppressWarnings("unchecked")
+    V remove(int key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (values[slot] != null) {
+            if (keys[slot] == key) {
+                V old = (V) values[slot];
+                deleteSlot(slot);
+                size--;
+                return old;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    List<V> values() {
+        List<V> result = new ArrayList<>(size);
+        for (Object value : values) {
+            if (value != null) result.add((V) value);
+        }
+        return result;
+    }
+
+    // Empties a slot and shifts the following entries of the same probe run back,
+    // so lookups never stop early on a hole (no "deleted" markers needed).
+    private void deleteSlot(int slot) {
+        int mask = keys.length - 1;
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (values[next] != null) {
+            int home = hash(keys[next]) & mask;
+            // Move the entry into the hole if its home slot isn't between the hole and its current slot.
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        values[hole] = null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void grow() {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new Object[oldValues.length * 2];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != null) put(oldKeys[i], (V) oldValues[i]);
+        }
+    }
+
+    // Spreads sequential IDs (1, 2, 3...) across the table.
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,96 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+
+// Change notifications from the model, so the dashboards can patch the rows that changed instead of reloading everything.
+// The entities publish an event whenever one is added, removed or changes status (Booking, Customer, Vehicle,
+// and RentalManager through them). Events are collected and handed to the listeners in batches:
+// the UI sets the dispatcher to Platform::runLater, so everything that happened until the next FX pulse arrives
+// as one list, on the FX thread, even if it was published from a background thread (e.g. the expiry scheduler).
+//
+// Nothing is collected while nobody listens, so loading large files doesn't pile up events.
+// Add/remove events carry an index, so a list publishes them while holding its own lock (see Booking): the order of
+// the events is then the order of the changes, even with several threads changing the list.
+public class ModelEvents {
+
+    public enum Kind { ADDED, REMOVED, STATUS_CHANGED }
+
+    // One change. 'index' is the position in the entity's static list when that is known (add/remove), otherwise -1.
+    // For a Vehicle it is its slot in the VehicleIndex instead (the one it had, for a removal).
+    public static class ModelEvent {
+        private final Kind kind;
+        private final Object entity;
+        private final int index;
+
+        ModelEvent(Kind kind, Object entity, int index) {
+            this.kind = kind;
+            this.entity = entity;
+            this.index = index;
+        }
+
+        public Kind getKind() { return kind; }
+        public Object getEntity() { return entity; }
+        public int getIndex() { return index; }
+
+        @Override
+        public String toString() {
+            return kind + " " + entity.getClass().getSimpleName() + (index >= 0 ? " at " + index : "");
+        }
+    }
+
+    public interface Listener {
+        void onEvents(List<ModelEvent> events);
+    }
+
+    private static final CopyOnWriteArrayList<Listener> listeners = new CopyOnWriteArrayList<>();
+    private static final Object lock = new Object();
+    private static List<ModelEvent> pending = new ArrayList<>();
+    private static boolean flushScheduled;
+
+    // Runs the delivery. Without a UI events are delivered right away on the publishing thread.
+    private static volatile Executor dispatcher = Runnable::run;
+
+    public static void setDispatcher(Executor dispatcher) {
+        ModelEvents.dispatcher = dispatcher;
+    }
+
+    public static void subscribe(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public static void unsubscribe(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    // --- Publishing, called by the entities ---
+    static void added(Object entity, int index) { publish(new ModelEvent(Kind.ADDED, entity, index)); }
+    static void removed(Object entity, int index) { publish(new ModelEvent(Kind.REMOVED, entity, index)); }
+    static void statusChanged(Object entity) { publish(new ModelEvent(Kind.STATUS_CHANGED, entity, -1)); }
+
+    private static void publish(ModelEvent event) {
+        if (listeners.isEmpty()) return;
+        boolean schedule;
+        synchronized (lock) {
+            pending.add(event);
+            schedule = !flushScheduled;
+            flushScheduled = true;
+        }
+        if (schedule) dispatcher.execute(ModelEvents::flush);
+    }
+
+    private static void flush() {
+        List<ModelEvent> batch;
+        synchronized (lock) {
+            batch = pending;
+            pending = new ArrayList<>();
+            flushScheduled = false;
+        }
+        if (batch.isEmpty()) return;
+        for (Listener listener : listeners) {
+            listener.onEvents(batch);
+        }
+    }
+}
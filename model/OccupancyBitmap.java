@@ -0,0 +1,148 @@
+package model;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+// One bit per day saying whether a vehicle was (or will be) rented out that day, past bookings included.
+// It answers questions like "how many days was this van rented last quarter" with bit operations on 64 days at a
+// time (Long.bitCount) instead of walking every booking, the reports (FleetAnalytics) use it that way.
+//
+// Compressed by chunks: days are grouped in chunks of CHUNK_DAYS, and only chunks with at least one booked day are
+// stored (in an IntMap keyed by chunk number). A vehicle that was booked a few times a year costs a few hundred bytes.
+//
+// Bits are set when a booking is made or loaded and cleared when it is cancelled. When a booking completes (expires)
+// its days stay set, the vehicle really was rented those days. Days follow AvailabilityCalendar: [start, end), at least one.
+public class OccupancyBitmap {
+
+    private static final int WORDS_PER_CHUNK = 8;
+    private static final int CHUNK_DAYS = WORDS_PER_CHUNK * 64; // 512 days
+
+    private final IntMap<long[]> chunks = new IntMap<>();
+
+    // --- Single vehicle ---
+
+    public synchronized boolean isBookedOn(long day) {
+        return (word(day >> 6) & (1L << day)) != 0;
+    }
+
+    // True if none of the days [startDay, endDay) is booked.
+    public synchronized boolean isFree(long startDay, long endDay) {
+        if (endDay <= startDay) endDay = startDay + 1;
+        for (long w = startDay >> 6; w <= (endDay - 1) >> 6; w++) {
+            if ((word(w) & mask(w, startDay, endDay)) != 0) return false;
+        }
+        return true;
+    }
+
+    // Number of booked days in [startDay, endDay).
+    public synchronized int countBooked(long startDay, long endDay) {
+        int count = 0;
+        for (long w = startDay >> 6; w <= (endDay - 1) >> 6 && startDay < endDay; w++) {
+            count += Long.bitCount(word(w) & mask(w, startDay, endDay));
+        }
+        return count;
+    }
+
+    // Bits of the days [startDay, endDay), bit i = day startDay + i.
+    public synchronized long[] range(long startDay, long endDay) {
+        int length = (int) Math.max(0, endDay - startDay);
+        long[] out = new long[(length + 63) >> 6];
+        int shift = (int) (startDay & 63);
+        long first = startDay >> 6;
+        for (int i = 0; i < out.length; i++) {
+            long low = word(first + i) >>> shift;
+            long high = shift == 0 ? 0 : word(first + i + 1) << (64 - shift);
+            out[i] = low | high;
+        }
+        // Drop the bits after endDay
+        if ((length & 63) != 0) out[out.length - 1] &= (1L << (length & 63)) - 1;
+        return out;
+    }
+
+    synchronized void set(long startDay, long endDay, boolean booked) {
+        for (long w = startDay >> 6; w <= (endDay - 1) >> 6 && startDay < endDay; w++) {
+            long bits = mask(w, startDay, endDay);
+            int chunkIndex = (int) Math.floorDiv(w, WORDS_PER_CHUNK);
+            int offset = Math.floorMod(w, WORDS_PER_CHUNK);
+            long[] chunk = chunks.get(chunkIndex);
+            if (booked) {
+                if (chunk == null) {
+                    chunk = new long[WORDS_PER_CHUNK];
+                    chunks.put(chunkIndex, chunk);
+                }
+                chunk[offset] |= bits;
+            } else if (chunk != null) {
+                chunk[offset] &= ~bits;
+                if (isEmpty(chunk)) chunks.remove(chunkIndex);
+            }
+        }
+    }
+
+    // Called by Booking when it is created and when it is cancelled.
+    static void booked(Booking booking) {
+        booking.getBookedVehicle().ensureOccupancy()
+                .set(AvailabilityCalendar.firstDay(booking), AvailabilityCalendar.endDay(booking), true);
+    }
+
+    // Another booking of the vehicle can share some of these days (a booking returned early and the one made after
+    // it), so its days are put back after clearing. Cancelling is rare, one pass over the bookings is fine.
+    static void cancelled(Booking booking) {
+        Vehicle vehicle = booking.getBookedVehicle();
+        OccupancyBitmap occupancy = vehicle.getOccupancy();
+        if (occupancy == null) return;
+        long startDay = AvailabilityCalendar.firstDay(booking);
+        long endDay = AvailabilityCalendar.endDay(booking);
+        occupancy.set(startDay, endDay, false);
+        synchronized (Booking.bookings) {
+            for (Booking other : Booking.bookings) {
+                if (other == booking || other.getBookedVehicle() != vehicle) continue;
+                long from = Math.max(startDay, AvailabilityCalendar.firstDay(other));
+                long to = Math.min(endDay, AvailabilityCalendar.endDay(other));
+                if (from < to) occupancy.set(from, to, true);
+            }
+        }
+    }
+
+    // Number of chunks in memory, to see how well it compresses.
+    public synchronized int chunkCount() {
+        return chunks.size();
+    }
+
+    // --- Whole fleet ---
+
+    // Booked days of every vehicle during [startDay, endDay), in the same order as the list (FleetAnalytics).
+    // Days two bookings share count once. Counted in parallel, each vehicle is a few bitCounts.
+    // Availability doesn't come from here: the bits of a booking returned early stay set, the calendar frees them.
+    public static long[] bookedDays(List<? extends Vehicle> vehicles, long startDay, long endDay) {
+        long[] days = new long[vehicles.size()];
+        IntStream.range(0, days.length).parallel()
+                .forEach(i -> {
+                    OccupancyBitmap occupancy = vehicles.get(i).getOccupancy();
+                    if (occupancy != null) days[i] = occupancy.countBooked(startDay, endDay);
+                });
+        return days;
+    }
+
+    // --- Internals ---
+
+    private long word(long w) {
+        long[] chunk = chunks.get((int) Math.floorDiv(w, WORDS_PER_CHUNK));
+        return chunk == null ? 0 : chunk[Math.floorMod(w, WORDS_PER_CHUNK)];
+    }
+
+    // The bits of word w that fall inside [startDay, endDay).
+    private static long mask(long w, long startDay, long endDay) {
+        long first = w << 6;
+        long from = Math.max(startDay, first) - first;     // 0..63
+        long to = Math.min(endDay, first + 64) - first;    // 1..64
+        long upper = to == 64 ? -1L : (1L << to) - 1;
+        return upper & (-1L << from);
+    }
+
+    private static boolean isEmpty(long[] chunk) {
+        for (long word : chunk) {
+            if (word != 0) return false;
+        }
+        return true;
+    }
+}
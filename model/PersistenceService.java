@@ -0,0 +1,177 @@
+package model;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+// Background writer used by the DataManager so the UI never waits for the disk.
+// Button handlers only queue work here (journal records or a snapshot of the data) and return immediately,
+// a single writer thread then does the actual I/O in the order it was requested.
+//
+// Bursts are coalesced: everything that piled up while the writer was busy is handled in one go,
+// all journal records go to disk with a single fsync, and if several snapshots were requested only the newest is written.
+public class PersistenceService {
+
+    // A full snapshot of the data, captured by the caller and written by the writer thread.
+    public interface SnapshotTask {
+        void write() throws IOException;
+    }
+
+    private final DataJournal journal;
+    private final Object lock = new Object();
+
+    // Work waiting for the writer, either a List<String> of journal records or a SnapshotTask.
+    private final ArrayDeque<Object> queue = new ArrayDeque<>();
+
+    // Journal records whose write failed, retried with the next batch (unless a snapshot covers them first).
+    private List<String> failedRecords = new ArrayList<>();
+
+    // Every submitted item gets a sequence number, flush() waits until the writer has caught up with it.
+    private long submitted;
+    private long completed;
+
+    // Statistics
+    private long writes;
+    private long totalWriteNanos;
+    private long lastWriteNanos;
+    private int maxQueueDepth;
+
+    public PersistenceService(DataJournal journal) {
+        this.journal = journal;
+        Thread writer = new Thread(this::runWriter, "persistence-writer");
+        writer.setDaemon(true); // Don't keep the JVM alive, the close hook calls flush() instead
+        writer.start();
+    }
+
+    public void submitJournal(List<String> records) {
+        if (records.isEmpty()) return;
+        enqueue(new ArrayList<>(records));
+    }
+
+    public void submitSnapshot(SnapshotTask snapshot) {
+        enqueue(snapshot);
+    }
+
+    // Blocks until everything submitted before this call is on disk. Used on shutdown.
+    public void flush() {
+        synchronized (lock) {
+            long target = submitted;
+            while (completed < target) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    public int getQueueDepth() {
+        synchronized (lock) { return queue.size(); }
+    }
+
+    public int getMaxQueueDepth() {
+        synchronized (lock) { return maxQueueDepth; }
+    }
+
+    public double getLastWriteMillis() {
+        synchronized (lock) { return lastWriteNanos / 1_000_000.0; }
+    }
+
+    public double getAverageWriteMillis() {
+        synchronized (lock) { return writes == 0 ? 0 : totalWriteNanos / 1_000_000.0 / writes; }
+    }
+
+    public String getStatistics() {
+        synchronized (lock) {
+            return String.format("writes: %d, last: %.2f ms, average: %.2f ms, queue: %d (max %d)",
+                    writes, getLastWriteMillis(), getAverageWriteMillis(), queue.size(), maxQueueDepth);
+        }
+    }
+
+    private void enqueue(Object work) {
+        synchronized (lock) {
+            queue.add(work);
+            submitted++;
+            maxQueueDepth = Math.max(maxQueueDepth, queue.size());
+            lock.notifyAll();
+        }
+    }
+
+    private void runWriter() {
+        while (true) {
+            List<Object> batch = new ArrayList<>();
+            synchronized (lock) {
+                while (queue.isEmpty()) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                batch.addAll(queue);
+                queue.clear();
+            }
+
+            long start = System.nanoTime();
+            writeBatch(batch);
+            long elapsed = System.nanoTime() - start;
+
+            synchronized (lock) {
+                completed += batch.size();
+                writes++;
+                lastWriteNanos = elapsed;
+                totalWriteNanos += elapsed;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    // Order matters: records queued before the newest snapshot are covered by it,
+    // records queued after it still have to go to the journal.
+    @SuppressWarnings("unchecked")
+    private void writeBatch(List<Object> batch) {
+        int lastSnapshot = -1;
+        for (int i = 0; i < batch.size(); i++) {
+            if (batch.get(i) instanceof SnapshotTask) lastSnapshot = i;
+        }
+
+        List<String> before = new ArrayList<>(failedRecords);
+        List<String> after = new ArrayList<>();
+        failedRecords = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            if (batch.get(i) instanceof List) {
+                (i < lastSnapshot ? before : after).addAll((List<String>) batch.get(i));
+            }
+        }
+
+        if (lastSnapshot >= 0) {
+            // Journal the older records first, so nothing is lost if the snapshot fails.
+            appendJournal(before);
+            try {
+                ((SnapshotTask) batch.get(lastSnapshot)).write();
+                failedRecords.clear(); // The snapshot covers them
+                journal.truncate();
+                System.out.println("All data saved successfully!");
+            } catch (IOException e) {
+                // Keep the journal, it's still the only copy of the latest changes.
+                System.err.println("Error saving snapshot: " + e.getMessage());
+            }
+        } else {
+            after.addAll(0, before);
+        }
+        appendJournal(after);
+    }
+
+    private void appendJournal(List<String> records) {
+        if (records.isEmpty()) return;
+        try {
+            journal.append(records);
+        } catch (IOException e) {
+            System.err.println("Error writing journal: " + e.getMessage());
+            failedRecords.addAll(records);
+        }
+    }
+}
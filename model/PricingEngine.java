@@ -0,0 +1,93 @@
+package model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.List;
+
+// All price calculations, done in whole cents (long) instead of double so the results are exact.
+// Rounding happens in exactly two places, both half-up to the nearest cent:
+//   1. when a daily rate (entered as a double like 49.99) is turned into cents, once per vehicle
+//   2. when the tax is applied to the subtotal, once per quote
+// (with dynamic pricing on, the surged subtotal is also rounded half-up to a cent before the tax, see DynamicPricing)
+// Tax rates are in basis points (1/100 of a percent, 30% = 3000) so they are whole numbers too.
+//
+// Formula: subtotal = rate * days (minimum 1 day), total = subtotal + round(subtotal * tax / 10000) + surcharge
+// The tax rate and the surcharge come from the TaxRules in force on the day the rental starts.
+public class PricingEngine {
+
+    private static final long BASIS_POINTS = 10_000;
+
+    // 49.99 -> 4999. Goes through BigDecimal so 0.1 + 0.2 style binary errors can't round the wrong way.
+    public static long toCents(double amount) {
+        return BigDecimal.valueOf(amount).setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact();
+    }
+
+    // 0.15 -> 1500
+    public static int toBasisPoints(double fraction) {
+        return BigDecimal.valueOf(fraction).movePointRight(4).setScale(0, RoundingMode.HALF_UP).intValueExact();
+    }
+
+    // Total price in cents for renting at 'rateCents' a day for 'days' days with the given tax.
+    public static long quote(long rateCents, long days, int taxBasisPoints) {
+        if (days <= 0) days = 1; // Minimum charge is always 1 day
+        return withTax(rateCents * days, taxBasisPoints);
+    }
+
+    // Quote for a rental starting today.
+    public static long quote(Vehicle vehicle, long days) {
+        long today = LocalDate.now().toEpochDay();
+        return quote(vehicle.getRateCents(), days, vehicle.getTaxBasisPoints(today)) + surcharge(vehicle, today);
+    }
+
+    // Quote for actual dates, this is the one bookings use. Tax follows the rules in force on the start date (see TaxRules).
+    // With dynamic pricing on, busy days cost more (see DynamicPricing).
+    public static long quote(Vehicle vehicle, LocalDate startDate, LocalDate endDate) {
+        long start = startDate.toEpochDay();
+        long end = endDate.toEpochDay();
+        long subtotal = DynamicPricing.isEnabled()
+                ? DynamicPricing.subtotalCents(vehicle, start, end)
+                : vehicle.getRateCents() * Math.max(1, end - start);
+        return withTax(subtotal, vehicle.getTaxBasisPoints(start)) + surcharge(vehicle, start);
+    }
+
+    // Adds the tax to a price before tax.
+    public static long withTax(long subtotal, int taxBasisPoints) {
+        return subtotal + roundHalfUp(subtotal * taxBasisPoints, BASIS_POINTS);
+    }
+
+    // Quotes every vehicle for every duration (starting today) in one pass.
+    // The result is a flat array, the price of vehicles[v] for durations[d] is at [v * durations.length + d].
+    public static long[] quoteAll(List<? extends Vehicle> vehicles, int[] durations) {
+        long[] prices = new long[vehicles.size() * durations.length];
+        long today = LocalDate.now().toEpochDay();
+        int i = 0;
+        for (Vehicle vehicle : vehicles) {
+            long rate = vehicle.getRateCents();
+            int tax = vehicle.getTaxBasisPoints(today);
+            long surcharge = surcharge(vehicle, today);
+            for (int days : durations) {
+                prices[i++] = quote(rate, days, tax) + surcharge;
+            }
+        }
+        return prices;
+    }
+
+    // Flat amount added after tax, if a tax rule has one.
+    private static long surcharge(Vehicle vehicle, long epochDay) {
+        return TaxRules.surchargeCents(vehicle.getVehicleType(), epochDay);
+    }
+
+    // 123456 -> "$1234.56"
+    public static String format(long cents) {
+        String sign = cents < 0 ? "-" : "";
+        cents = Math.abs(cents);
+        long fraction = cents % 100;
+        return sign + "$" + (cents / 100) + "." + (fraction < 10 ? "0" : "") + fraction;
+    }
+
+    // value / divisor rounded half-up, for non-negative values. DynamicPricing rounds its surged rates with it too.
+    static long roundHalfUp(long value, long divisor) {
+        return (value + divisor / 2) / divisor;
+    }
+}
@@ -0,0 +1,62 @@
+package model;
+
+// Central identity registry, keeps an ID -> object map for every Customer, Vehicle and Booking.
+// The static lists (Customer.customers, Vehicle.allVehicles, Booking.bookings) are still the ones we display and save,
+// the registry only exists so finding something by its ID doesn't mean walking a whole list.
+// The entity constructors register themselves, and the remove methods on the entities unregister them.
+// IntMap isn't thread safe and bookings are created from several threads, so every access locks the map it uses.
+public class Registry {
+
+    private static final IntMap<Customer> customers = new IntMap<>();
+    private static final IntMap<Vehicle> vehicles = new IntMap<>();
+    private static final IntMap<Booking> bookings = new IntMap<>();
+
+    // O(1) lookups, return null if nothing has that ID.
+    public static Customer customerById(int id) { return get(customers, id); }
+    public static Vehicle vehicleById(int id) { return get(vehicles, id); }
+    public static Booking bookingById(int id) { return get(bookings, id); }
+
+    // Called from the constructors.
+    static void register(Customer customer) { put(customers, customer.getCustomerId(), customer); }
+    static void register(Vehicle vehicle) { put(vehicles, vehicle.getVehicleId(), vehicle); }
+    static void register(Booking booking) { put(bookings, booking.getBookingId(), booking); }
+
+    static void unregister(Vehicle vehicle) { removeIfSame(vehicles, vehicle.getVehicleId(), vehicle); }
+    static void unregister(Booking booking) { removeIfSame(bookings, booking.getBookingId(), booking); }
+
+    // Called when an object's ID changes (loading restores saved IDs), so it's filed under the new one.
+    static void rekey(Customer customer, int oldId) {
+        removeIfSame(customers, oldId, customer);
+        register(customer);
+    }
+
+    static void rekey(Vehicle vehicle, int oldId) {
+        removeIfSame(vehicles, oldId, vehicle);
+        register(vehicle);
+    }
+
+    static void rekey(Booking booking, int oldId) {
+        removeIfSame(bookings, oldId, booking);
+        register(booking);
+    }
+
+    // Used by the loaders together with clearing the static lists.
+    static void clearCustomers() { synchronized (customers) { customers.clear(); } }
+    static void clearVehicles() { synchronized (vehicles) { vehicles.clear(); } }
+    static void clearBookings() { synchronized (bookings) { bookings.clear(); } }
+
+    private static <T> T get(IntMap<T> map, int id) {
+        synchronized (map) { return map.get(id); }
+    }
+
+    private static <T> void put(IntMap<T> map, int id, T object) {
+        synchronized (map) { map.put(id, object); }
+    }
+
+    // Only drop the entry if it still points at this object, another object may already be using the ID.
+    private static <T> void removeIfSame(IntMap<T> map, int id, T object) {
+        synchronized (map) {
+            if (map.get(id) == object) map.remove(id);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package model;
 
 import java.util.ArrayList;
+import model.CustomExceptions.DuplicateLicenseException;
 
 // Manager class, represents the "authority" over the program, adding vehicles and removing them, examining the bookings,
 // etc...
@@ -18,14 +19,17 @@ public class RentalManager {
 
     // We have successfully applied the concept of Method Overloading via creating two addVehicle methods,
     // The first adds the van, the second has an extra "type" field and an option field.
-    public void addVehicle(String model, String licenseId, double rate, double capacity){
+    // Both throw if the license plate is already in the fleet.
+    public void addVehicle(String model, String licenseId, double rate, double capacity)
+            throws DuplicateLicenseException {
         // We simply create the object. The Vehicle constructor automatically
         // adds it to the global allVehicles list.
         new Van(model, licenseId, rate, capacity);
     }
 
     // Adds a Car or Bike (Requires boolean option 'isAuto' or 'hasHelmet')
-    public void addVehicle(String model, String licenseId, double rate, boolean option, char type){
+    public void addVehicle(String model, String licenseId, double rate, boolean option, char type)
+            throws DuplicateLicenseException {
         // Factory-like logic to decide which subclass to instantiate
         if(type == 'c') {
             new Car(model, licenseId, rate, option); // option = isAutomatic
@@ -37,16 +41,12 @@ public class RentalManager {
 
     // Management Logic: Removing a vehicle safely
     public void removeVehicleById(int id){
-        // Remove the object from the global list
-        Vehicle.allVehicles.remove(id);
-
-        // Re-Indexing Loop
-        // Since we store IDs as simple integers (0, 1, 2...), if we delete #1,
-        // we must shift #2 down to become #1. This keeps the IDs sequential
-        // and prevents errors in the TableView.
-        for(int i = id; i < Vehicle.allVehicles.size(); i++){
-            int used = i;
-            Vehicle.allVehicles.get(i).setVehicleId(used--);
-        }
+        // Find the vehicle through the registry instead of treating the ID as a list position
+        Vehicle vehicle = Registry.vehicleById(id);
+        if (vehicle == null) return;
+
+        // Same path as the Admin Dashboard: the vehicle becomes a tombstone, every other ID stays as it is
+        // (bookings and the saved files refer to them).
+        Vehicle.removeVehicle(vehicle);
     }
 }
\ No newline at end of file
@@ -0,0 +1,71 @@
+package model;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// Running revenue totals, kept up to date as bookings are made, cancelled and completed.
+// The admin panel used to rebuild the total by formatting every booking's cost as "$12.34" and parsing it back,
+// which was slow and lost a digit. Here amounts are whole cents in a long, so adding them up is exact,
+// and reading a total is just returning a field.
+//
+// Revenue counts every booking in the system (active and completed), cancelled bookings are taken back out.
+// Each booking is booked in at the amount it was worth when it was created (Booking.getCostCents()),
+// so a later change of the vehicle's rate doesn't make the totals drift.
+public class RevenueLedger {
+
+    private static long activeCents;     // Bookings still running or upcoming
+    private static long completedCents;  // Bookings that have ended
+    private static final long[] byType = new long[VehicleType.values().length];
+    private static final Map<Long, Long> byStartDay = new HashMap<>(); // Epoch day -> cents
+
+    // --- Reading ---
+    public static synchronized long getTotalCents() { return activeCents + completedCents; }
+    public static synchronized long getActiveCents() { return activeCents; }
+    public static synchronized long getCompletedCents() { return completedCents; }
+
+    public static synchronized long getCentsFor(VehicleType type) {
+        return byType[type.ordinal()];
+    }
+
+    // Revenue of the bookings starting on that day.
+    public static synchronized long getCentsOn(LocalDate day) {
+        return byStartDay.getOrDefault(day.toEpochDay(), 0L);
+    }
+
+    // --- Updates, called by Booking ---
+    static synchronized void recordBooking(Booking booking) {
+        add(booking, booking.getCostCents());
+    }
+
+    static synchronized void recordCancellation(Booking booking) {
+        add(booking, -booking.getCostCents());
+    }
+
+    // Moves a booking's amount between active and completed, the total stays the same.
+    static synchronized void recordStatusChange(Booking booking, boolean nowActive) {
+        long cents = booking.getCostCents();
+        if (nowActive) {
+            completedCents -= cents;
+            activeCents += cents;
+        } else {
+            activeCents -= cents;
+            completedCents += cents;
+        }
+    }
+
+    static synchronized void clear() {
+        activeCents = 0;
+        completedCents = 0;
+        Arrays.fill(byType, 0);
+        byStartDay.clear();
+    }
+
+    private static void add(Booking booking, long cents) {
+        if (booking.isActive()) activeCents += cents;
+        else completedCents += cents;
+        byType[booking.getBookedVehicle().getVehicleType().ordinal()] += cents;
+        byStartDay.merge(booking.getStartDate().toEpochDay(), cents, Long::sum);
+    }
+}
@@ -0,0 +1,156 @@
+package model;
+
+import model.CustomExceptions.DuplicateKeyException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+// Lookup of entities by one of their attributes (the Registry does the same by ID).
+// An index is declared next to the entity's static list, e.g. Vehicle.byLicense or Customer.byUsername,
+// with a function that gives the key of an entity (already normalized, e.g. upper case plates).
+//
+// A unique index refuses a second entity with a key that is taken (DuplicateKeyException) and leaves everything
+// as it was, so the check and the insert are one O(1) step instead of a loop over the list before adding.
+// A non-unique index keeps every entity with the key.
+//
+// The entity calls add() when it is created, remove() when it is deleted and update() if the attribute changes,
+// the loaders clear() it together with the list. Null keys aren't indexed.
+//
+// Files written before an index was unique can hold two entities with the same key. The loaders use addLoaded(),
+// which keeps the second one as a conflict instead of refusing it (dropping it would lose its bookings for good):
+// the first one keeps the key, the conflicts are listed for the admin and take the key over once it is free.
+public class SecondaryIndex<K, E> {
+
+    private final String name;
+    private final boolean unique;
+    private final Function<E, K> keyOf;
+
+    private final HashMap<K, E> single = new HashMap<>();
+    private final HashMap<K, ArrayList<E>> multi = new HashMap<>();
+    // The key every entity is filed under, so remove() and update() find the entry even after the attribute changed
+    private final IdentityHashMap<E, K> filedUnder = new IdentityHashMap<>();
+    // Loaded entities whose key was already taken (unique index only), with that key
+    private final IdentityHashMap<E, K> conflicting = new IdentityHashMap<>();
+
+    public SecondaryIndex(String name, boolean unique, Function<E, K> keyOf) {
+        this.name = name;
+        this.unique = unique;
+        this.keyOf = keyOf;
+    }
+
+    public String getName() { return name; }
+    public boolean isUnique() { return unique; }
+
+    // The key this index would file the entity under.
+    public K keyOf(E entity) {
+        return keyOf.apply(entity);
+    }
+
+    public synchronized void add(E entity) throws DuplicateKeyException {
+        K key = keyOf.apply(entity);
+        if (key == null || filedUnder.containsKey(entity)) return;
+        checkFree(key, entity);
+        put(key, entity);
+    }
+
+    // Like add(), for an entity read back from a file: a taken key doesn't refuse it, it is kept as a conflict.
+    // Returns false in that case.
+    public synchronized boolean addLoaded(E entity) {
+        K key = keyOf.apply(entity);
+        if (key == null || filedUnder.containsKey(entity) || conflicting.containsKey(entity)) return true;
+        E holder = unique ? single.get(key) : null;
+        if (holder != null && holder != entity) {
+            conflicting.put(entity, key);
+            return false;
+        }
+        put(key, entity);
+        return true;
+    }
+
+    // Entities kept by addLoaded() that share their key with another one.
+    public synchronized List<E> conflicts() {
+        return new ArrayList<>(conflicting.keySet());
+    }
+
+    public synchronized void remove(E entity) {
+        if (conflicting.remove(entity) != null) return;
+        if (!filedUnder.containsKey(entity)) return;
+        K key = filedUnder.remove(entity);
+        if (unique) {
+            single.remove(key);
+            // A conflict with the same key takes it over
+            for (E waiting : conflicting.keySet()) {
+                if (Objects.equals(conflicting.get(waiting), key)) {
+                    conflicting.remove(waiting);
+                    put(key, waiting);
+                    break;
+                }
+            }
+        } else {
+            ArrayList<E> entities = multi.get(key);
+            entities.remove(entity);
+            if (entities.isEmpty()) multi.remove(key);
+        }
+    }
+
+    // Files the entity under its current key. If that key is taken (unique index) nothing changes.
+    public synchronized void update(E entity) throws DuplicateKeyException {
+        K key = keyOf.apply(entity);
+        if (filedUnder.containsKey(entity) && Objects.equals(filedUnder.get(entity), key)) return;
+        if (key != null) checkFree(key, entity);
+        remove(entity);
+        if (key != null) put(key, entity);
+    }
+
+    public synchronized void clear() {
+        single.clear();
+        multi.clear();
+        filedUnder.clear();
+        conflicting.clear();
+    }
+
+    // The entity with that key (the first one for a non-unique index), null if there is none.
+    public synchronized E find(K key) {
+        if (unique) return single.get(key);
+        ArrayList<E> entities = multi.get(key);
+        return entities == null ? null : entities.get(0);
+    }
+
+    // Every entity with that key.
+    public synchronized List<E> findAll(K key) {
+        if (unique) {
+            E entity = single.get(key);
+            return entity == null ? Collections.emptyList() : List.of(entity);
+        }
+        ArrayList<E> entities = multi.get(key);
+        return entities == null ? Collections.emptyList() : new ArrayList<>(entities);
+    }
+
+    public synchronized boolean contains(K key) {
+        return unique ? single.containsKey(key) : multi.containsKey(key);
+    }
+
+    public synchronized int size() {
+        return filedUnder.size();
+    }
+
+    private void checkFree(K key, E entity) throws DuplicateKeyException {
+        if (!unique) return;
+        E holder = single.get(key);
+        if (holder != null && holder != entity) throw new DuplicateKeyException(name, key);
+    }
+
+    private void put(K key, E entity) {
+        if (unique) {
+            single.put(key, entity);
+        } else {
+            multi.computeIfAbsent(key, k -> new ArrayList<>()).add(entity);
+        }
+        filedUnder.put(entity, key);
+    }
+}
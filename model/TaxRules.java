@@ -0,0 +1,177 @@
+package model;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+// Tax rates per vehicle type, read from data/tax_rules.csv instead of being hard coded in Taxable.
+// One rule per line:  type,from,to,rateBasisPoints,surchargeCents
+//   Car,2025-01-01,2025-12-31,3200,0     -> cars starting a rental in 2025 pay 32% tax
+//   Van,,,1500,500                       -> empty dates mean "always", vans also pay a flat $5.00 surcharge
+// Dates are inclusive and refer to the day a rental starts. When rules overlap the one further down the file wins.
+// Lines starting with # are comments. If the file doesn't exist it is created with the old hard coded rates.
+//
+// The rules are compiled into one flat array with a slot per (vehicle type, day) between 2000 and 2100,
+// holding the number of the rule that applies. Looking up a tax is then a single array read, no objects created.
+// Loading new rules builds a new table and swaps it in, so readers never see a half built one.
+public class TaxRules {
+
+    // Days covered by the table, dates outside it use the first or last day.
+    private static final long FIRST_DAY = LocalDate.of(2000, 1, 1).toEpochDay();
+    private static final int DAYS = (int) (LocalDate.of(2100, 1, 1).toEpochDay() - FIRST_DAY);
+    private static final int TYPES = VehicleType.values().length;
+
+    // One compiled set of rules
+    private static class Table {
+        final short[] ruleAt = new short[TYPES * DAYS]; // (type, day) -> rule number, 0 = no rule
+        final int[] rates;        // Rule number -> rate in basis points
+        final long[] surcharges;  // Rule number -> flat surcharge in cents
+        final String[] labels;    // Rule number -> "30%"
+
+        Table(int rules) {
+            rates = new int[rules + 1];
+            surcharges = new long[rules + 1];
+            labels = new String[rules + 1];
+            labels[0] = "0%";
+        }
+    }
+
+    // One line of the file, already checked and converted
+    private static class Rule {
+        final int type;
+        final int from;         // Table days, inclusive
+        final int to;
+        final int rate;         // Basis points
+        final long surcharge;   // Cents
+
+        // Throws (DateTimeParseException, NumberFormatException or IllegalArgumentException) if a field is wrong.
+        Rule(String[] parts) {
+            if (parts.length < 4) throw new IllegalArgumentException("Expected at least 4 fields");
+            VehicleType vehicleType = VehicleType.fromLabel(parts[0].trim());
+            if (vehicleType == null) throw new IllegalArgumentException("Unknown vehicle type " + parts[0].trim());
+            type = vehicleType.ordinal();
+            from = parts[1].isBlank() ? 0 : clamp(LocalDate.parse(parts[1].trim()).toEpochDay());
+            to = parts[2].isBlank() ? DAYS - 1 : clamp(LocalDate.parse(parts[2].trim()).toEpochDay());
+            rate = Integer.parseInt(parts[3].trim());
+            surcharge = parts.length > 4 && !parts[4].isBlank() ? Long.parseLong(parts[4].trim()) : 0;
+            if (rate < 0 || surcharge < 0) throw new IllegalArgumentException("Negative rate or surcharge");
+        }
+    }
+
+    private static volatile Table table = compile(parse(defaultRules()));
+
+    // --- Lookups ---
+    public static int rateBasisPoints(VehicleType type, long epochDay) {
+        Table t = table;
+        return t.rates[t.ruleAt[slot(type, epochDay)]];
+    }
+
+    public static long surchargeCents(VehicleType type, long epochDay) {
+        Table t = table;
+        return t.surcharges[t.ruleAt[slot(type, epochDay)]];
+    }
+
+    // The rate as text for the tables, e.g. "30%" or "12.5%".
+    public static String rateLabel(VehicleType type, long epochDay) {
+        Table t = table;
+        return t.labels[t.ruleAt[slot(type, epochDay)]];
+    }
+
+    // --- Loading ---
+
+    // Reads the rules file, or creates it with the default rates if it doesn't exist yet.
+    // A line that can't be read is skipped (and reported), the other rules still apply.
+    public static void load(String path) {
+        File file = new File(path);
+        if (!file.exists()) {
+            writeDefaults(file);
+            table = compile(parse(defaultRules()));
+            return;
+        }
+
+        List<Rule> rules = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                // Every field is checked here, so a bad date or number only costs its own line
+                try {
+                    rules.add(new Rule(line.split(",", -1)));
+                } catch (RuntimeException e) {
+                    System.err.println("Skipping tax rule on line " + lineNumber + " (" + e.getMessage() + "): " + line);
+                }
+            }
+            table = compile(rules);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error loading tax rules: " + e.getMessage());
+        }
+    }
+
+    private static List<String[]> defaultRules() {
+        List<String[]> rules = new ArrayList<>();
+        rules.add(new String[] {"Car", "", "", "3000", "0"});
+        rules.add(new String[] {"Bike", "", "", "1000", "0"});
+        rules.add(new String[] {"Van", "", "", "1500", "0"});
+        return rules;
+    }
+
+    private static List<Rule> parse(List<String[]> lines) {
+        List<Rule> rules = new ArrayList<>();
+        for (String[] parts : lines) rules.add(new Rule(parts));
+        return rules;
+    }
+
+    private static void writeDefaults(File file) {
+        try (PrintWriter writer = new PrintWriter(new FileWriter(file))) {
+            writer.println("# type,from,to,rateBasisPoints,surchargeCents (empty dates = always, 3000 = 30%)");
+            for (String[] rule : defaultRules()) {
+                writer.println(String.join(",", rule));
+            }
+        } catch (IOException e) {
+            System.err.println("Error writing default tax rules: " + e.getMessage());
+        }
+    }
+
+    // The rules are already checked (see Rule), nothing here can fail on a bad field.
+    private static Table compile(List<Rule> rules) {
+        if (rules.size() >= Short.MAX_VALUE) throw new IllegalArgumentException("Too many tax rules");
+        Table t = new Table(rules.size());
+        for (int i = 0; i < rules.size(); i++) {
+            Rule rule = rules.get(i);
+            int number = i + 1;
+            t.rates[number] = rule.rate;
+            t.surcharges[number] = rule.surcharge;
+            t.labels[number] = label(rule.rate);
+
+            // Later rules overwrite earlier ones
+            int base = rule.type * DAYS;
+            for (int day = rule.from; day <= rule.to; day++) {
+                t.ruleAt[base + day] = (short) number;
+            }
+        }
+        return t;
+    }
+
+    // 3000 -> "30%", 1250 -> "12.5%"
+    private static String label(int basisPoints) {
+        return BigDecimal.valueOf(basisPoints, 2).stripTrailingZeros().toPlainString() + "%";
+    }
+
+    private static int slot(VehicleType type, long epochDay) {
+        return type.ordinal() * DAYS + clamp(epochDay);
+    }
+
+    private static int clamp(long epochDay) {
+        return (int) Math.max(0, Math.min(DAYS - 1, epochDay - FIRST_DAY));
+    }
+}
@@ -1,34 +1,36 @@
 package model;
 
+import model.CustomExceptions.DuplicateLicenseException;
+
 // Successfully applies the inheritance pillar.
 public class Van extends Vehicle{
 
-    // Our unique attribution for Van.
-    private double loadCapacity;
-
     // Constructor
-    public Van(String model, String licenseNumber, double rate, double loadCapacity) {
+    public Van(String model, String licenseNumber, double rate, double loadCapacity) throws DuplicateLicenseException {
+        this(model, licenseNumber, rate, loadCapacity, false, false);
+    }
+
+    // Used by the loaders: 'loaded' is true, 'removed' rebuilds a van that was saved as deleted (see Vehicle)
+    Van(String model, String licenseNumber, double rate, double loadCapacity, boolean removed, boolean loaded) throws DuplicateLicenseException {
         // Calls the parent class constructor to initialize the shared data fields.
-        super(model, licenseNumber, rate);
-        // Initializing the custom data fields.
-        this.loadCapacity = loadCapacity;
+        super(model, licenseNumber, rate, removed, loaded);
+        // Initializing the custom data fields (the capacity column of the FleetStore).
+        store.setCapacity(row, loadCapacity);
+        // Index it now that the subclass fields are set (the search index filters on them)
+        VehicleIndex.add(this);
+        // Fully built now, tell the dashboards (with its index slot), tombstones aren't shown
+        if (!removed) ModelEvents.added(this, indexSlot);
     }
 
     // Getter for the specific attribute
     // Used by DataManager to save the capacity to the CSV file.
     public double getLoadCapacityInclude() {
-        return loadCapacity;
+        return store.capacity(row);
     }
 
-    // For our table view in CustomerDashboard.
-    public String getTaxRate()
-    {
-        return "15%";
-    }
 
-    // Overriding our implemented interface of "Taxable".
-    public double getTaxRateFraction()
-    {
-        return vanTax;
+    // Tells the indexes which bucket this vehicle belongs to
+    public VehicleType getVehicleType() {
+        return VehicleType.VAN;
     }
 }
\ No newline at end of file
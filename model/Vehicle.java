@@ -1,6 +1,12 @@
 package model;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.ReentrantLock;
+import model.CustomExceptions.*;
 
 
 // An abstract class, serves as the blueprint for our specific vehicle types (Car, Bike, Van).
@@ -9,44 +15,253 @@ public abstract class Vehicle implements Comparable<Vehicle>, Taxable {
 
     // We successfully applied the concept of Encapsulation via the use of private data access modifiers,
     // Which made us need to make getter and setter methods in order to access said data fields.
-    private int vehicleId;
-    private String licenseNumber;
-    private String model;
-    private double dailyRate;
-    private boolean isAvailable;
+    // The ID, model, license plate and rate live in the FleetStore's columns, a vehicle only knows its row there.
+    final FleetStore store;
+    final int row;
+
+    // Every date range this vehicle is booked for, availability is worked out from it.
+    // Both are made on the first booking (see ensureCalendar), most of a big fleet is never booked and a vehicle
+    // without them is simply free. Volatile so a reader on another thread sees them once they are made.
+    private volatile AvailabilityCalendar calendar;
+
+    // Every day this vehicle was or will be rented out, completed bookings included (for utilization reports).
+    private volatile OccupancyBitmap occupancy;
+
+    // Position of this vehicle in the VehicleIndex, -1 while it isn't indexed.
+    int indexSlot = -1;
+
+    // Tombstone: set when the vehicle is deleted. A deleted vehicle keeps its ID (IDs are never handed out twice)
+    // and can still be found by it in the Registry, so the bookings made for it stay valid and keep loading.
+    private volatile boolean removed;
+
+    // How many bookings (active or completed) point to this vehicle, kept up by the Booking constructor and
+    // removeBooking(). Overlapping bookings share days in the occupancy bitmap, so the bitmap can't tell this.
+    // Bookings of different vehicles are made in parallel, the updater bumps it without a lock or an object per vehicle.
+    private volatile int bookingCount;
+    private static final AtomicIntegerFieldUpdater<Vehicle> BOOKING_COUNT =
+            AtomicIntegerFieldUpdater.newUpdater(Vehicle.class, "bookingCount");
 
     // Added a list to keep track of all the vehicles created.
     // We made it public static so we can access it wherever we wanted without having to instantiate our class.
+    // Deleting only marks the vehicle, it stays in this list until VehicleCompactor clears the tombstones out in the
+    // background, so code looping over it should skip isRemoved() ones (the VehicleIndex/VehicleQuery already does).
+    // Adding and compacting both lock the list, copies of it should too (see savedVehicles()).
     public static ArrayList<Vehicle> allVehicles = new ArrayList<>();
 
+    // License plates of the vehicles in the fleet, unique (case and spaces around it don't count).
+    // Deleted vehicles give their plate up, it can go to a new vehicle.
+    public static final SecondaryIndex<String, Vehicle> byLicense =
+            new SecondaryIndex<>("License", true, vehicle -> vehicle.removed ? null : licenseKey(vehicle.getLicenseNumber()));
+
+    public static String licenseKey(String licenseNumber) {
+        return licenseNumber == null ? null : licenseNumber.trim().toUpperCase(Locale.ROOT);
+    }
+
+    // Deleted vehicles that bookings still point to, moved here by the compaction. Saved with the rest (marked as
+    // removed) so the booking history still loads. Guarded by the allVehicles lock.
+    private static final ArrayList<Vehicle> retired = new ArrayList<>();
+
     // Constructor
-    public Vehicle(String model, String licenseNumber, double rate) {
-        this.vehicleId = getNextId(); // generates a unique ID for each car.
-        this.model = model;
-        this.licenseNumber = licenseNumber;
-        this.isAvailable = true;      // Defaults to available when created
-        this.dailyRate = rate;
+    // Throws if another vehicle in the fleet has the same license plate, nothing is added in that case.
+    public Vehicle(String model, String licenseNumber, double rate) throws DuplicateLicenseException {
+        this(model, licenseNumber, rate, false, false);
+    }
+
+    // For the loaders ('loaded'). 'removed' rebuilds a vehicle that was saved as deleted: it comes back as a
+    // tombstone, without a license plate in the index, and goes straight to the retired list.
+    // When loading, a plate that is already taken doesn't refuse the vehicle, older files could have two of them
+    // (plates only had to differ in case), it is kept as a conflict of byLicense instead (see SecondaryIndex.addLoaded).
+    Vehicle(String model, String licenseNumber, double rate, boolean removed, boolean loaded)
+            throws DuplicateLicenseException {
+        // Available by default, there is no calendar until the first booking
+        this.store = FleetStore.current();
+        this.row = store.add(model, licenseNumber, rate, getVehicleType());
+        this.removed = removed;
+        try {
+            if (loaded) byLicense.addLoaded(this);
+            else byLicense.add(this);
+        } catch (DuplicateKeyException e) {
+            store.release(row);
+            throw new DuplicateLicenseException("License " + licenseNumber + " already exists");
+        }
+        store.setId(row, getNextId()); // generates a unique ID for each car.
 
-        // Automatically adds this new vehicle to our array list.
-        allVehicles.add(this);
+        // Automatically adds this new vehicle to our array list, and to the registry for lookups by ID.
+        synchronized (allVehicles) {
+            if (removed) retired.add(this);
+            else allVehicles.add(this);
+        }
+        Registry.register(this);
     }
 
+    // Deletes a vehicle: it leaves the search indexes (so nobody sees or books it any more) and becomes a tombstone.
+    // Nothing gets shifted or renumbered, the list itself is cleaned up later by VehicleCompactor.
+    // Holds the vehicle's BookingEngine lock, so a booking that is being made right now either finishes first
+    // or sees the tombstone and is refused.
+    public static void removeVehicle(Vehicle vehicle) {
+        ReentrantLock lock = BookingEngine.stripeFor(vehicle);
+        int slot;
+        lock.lock();
+        try {
+            if (vehicle.removed) return;
+            slot = vehicle.indexSlot;
+            byLicense.remove(vehicle);
+            vehicle.removed = true;
+            VehicleIndex.remove(vehicle);
+        } finally {
+            lock.unlock();
+        }
+        ModelEvents.removed(vehicle, slot); // The slot it had, the dashboards find its row by it
+        VehicleCompactor.vehicleRemoved();
+    }
+
+    // Everything that has to be saved: the vehicles in the list (tombstones included) and the retired ones.
+    static List<Vehicle> savedVehicles() {
+        synchronized (allVehicles) {
+            List<Vehicle> all = new ArrayList<>(allVehicles.size() + retired.size());
+            all.addAll(allVehicles);
+            all.addAll(retired);
+            return all;
+        }
+    }
+
+    // Clears the tombstones out of allVehicles, called by VehicleCompactor on its own thread.
+    // Tombstones that bookings still point to (their booking count isn't zero) move to the retired list,
+    // the others are dropped for good. The one with the highest ID is always kept: IDs continue after the highest
+    // saved one, so keeping it means a dropped ID never comes back after a restart.
+    // Returns how many tombstones were cleared out of the list.
+    static int compact() {
+        synchronized (allVehicles) {
+            int newestId = idCounter - 1;
+            ArrayList<Vehicle> live = new ArrayList<>(allVehicles.size());
+            int cleared = 0;
+            for (Vehicle vehicle : allVehicles) {
+                if (!vehicle.removed) {
+                    live.add(vehicle);
+                    continue;
+                }
+                cleared++;
+                if (vehicle.bookingCount > 0 || vehicle.getVehicleId() == newestId) {
+                    retired.add(vehicle);
+                } else {
+                    Registry.unregister(vehicle);
+                    vehicle.store.release(vehicle.row); // Nothing reads the row any more, a new vehicle can have it
+                }
+            }
+            // Retired vehicles whose last bookings were cancelled aren't needed any more either
+            retired.removeIf(vehicle -> {
+                boolean unused = vehicle.bookingCount == 0 && vehicle.getVehicleId() != newestId;
+                if (unused) {
+                    Registry.unregister(vehicle);
+                    vehicle.store.release(vehicle.row);
+                }
+                return unused;
+            });
+            if (cleared > 0) {
+                allVehicles.clear();
+                allVehicles.addAll(live);
+            }
+            return cleared;
+        }
+    }
+
+    // Forgets every vehicle, used by the loaders before reading a file.
+    static void clearAll() {
+        synchronized (allVehicles) {
+            allVehicles.clear();
+            retired.clear();
+        }
+        Registry.clearVehicles();
+        VehicleIndex.clear();
+        byLicense.clear();
+        FleetStore.reset();
+    }
+
+    // Kept up by the Booking constructor and Booking.removeBooking().
+    void bookingAdded() { BOOKING_COUNT.incrementAndGet(this); }
+    void bookingRemoved() { BOOKING_COUNT.decrementAndGet(this); }
+
+    // Used by Booking.clearAll(), the vehicles stay but none of their bookings do.
+    static void clearBookingCounts() {
+        for (Vehicle vehicle : savedVehicles()) vehicle.bookingCount = 0;
+    }
+
+    // Each subclass tells which kind of vehicle it is.
+    public abstract VehicleType getVehicleType();
+
     // Returns the rental cost.
+    // Worked out in cents by the PricingEngine with today's tax, use PricingEngine.quote() directly to stay in cents.
     public double calculateRentalCost(int days, double dailyRate) {
-        return days * dailyRate*(1+getTaxRateFraction());
+        long today = LocalDate.now().toEpochDay();
+        long cents = PricingEngine.quote(PricingEngine.toCents(dailyRate), days, getTaxBasisPoints(today))
+                + TaxRules.surchargeCents(getVehicleType(), today);
+        return cents / 100.0;
+    }
+
+    // Tax comes from the TaxRules table, by vehicle type and date (the start date of a rental).
+    public int getTaxBasisPoints(long epochDay) {
+        return TaxRules.rateBasisPoints(getVehicleType(), epochDay);
+    }
+
+    // For our table views, today's rate as text like "30%".
+    public String getTaxRate() {
+        return TaxRules.rateLabel(getVehicleType(), LocalDate.now().toEpochDay());
+    }
+
+    // Overriding our implemented interface of "Taxable", today's rate as a fraction (0.3 for 30%).
+    public double getTaxRateFraction() {
+        return getTaxBasisPoints(LocalDate.now().toEpochDay()) / 10_000.0;
     }
 
     // Getters and setters.
 
-    public String getModel() { return model; }
-    public String getLicenseNumber() { return licenseNumber; }
-    public double getDailyRate() { return dailyRate; }
-    public boolean getIsAvailable() { return isAvailable; }
-    public int getVehicleId() { return vehicleId; }
-    // Used when removing a vehicle to re-order IDs.
-    public void setVehicleId(int id) { vehicleId = id; }
-    // Used when a customer books or returns a vehicle
-    public void setIsAvailable(boolean available) { this.isAvailable = available; }
+    public String getModel() { return store.model(row); }
+    public String getLicenseNumber() { return store.license(row); }
+    public double getDailyRate() { return store.rate(row); }
+    public long getRateCents() { return store.rateCents(row); }
+    public int getVehicleId() { return store.id(row); }
+    // Null until the vehicle is booked for the first time.
+    public AvailabilityCalendar getCalendar() { return calendar; }
+    public OccupancyBitmap getOccupancy() { return occupancy; }
+
+    // Used by Booking and OccupancyBitmap when a booking needs them, makes them the first time.
+    AvailabilityCalendar ensureCalendar() {
+        AvailabilityCalendar existing = calendar;
+        if (existing != null) return existing;
+        synchronized (this) {
+            if (calendar == null) calendar = new AvailabilityCalendar();
+            return calendar;
+        }
+    }
+
+    OccupancyBitmap ensureOccupancy() {
+        OccupancyBitmap existing = occupancy;
+        if (existing != null) return existing;
+        synchronized (this) {
+            if (occupancy == null) occupancy = new OccupancyBitmap();
+            return occupancy;
+        }
+    }
+    public boolean isRemoved() { return removed; }
+    public int getBookingCount() { return bookingCount; }
+
+    // Available means nobody has it booked today.
+    public boolean getIsAvailable() {
+        AvailabilityCalendar calendar = this.calendar;
+        return calendar == null || !calendar.isBookedOn(LocalDate.now().toEpochDay());
+    }
+
+    // True if no booking overlaps the range (end date is the return day, see AvailabilityCalendar).
+    public boolean isAvailableBetween(LocalDate startDate, LocalDate endDate) {
+        AvailabilityCalendar calendar = this.calendar;
+        return calendar == null || calendar.isFree(startDate, endDate);
+    }
+
+    // True if the vehicle is rented right now or reserved for later.
+    public boolean hasUpcomingBookings() {
+        AvailabilityCalendar calendar = this.calendar;
+        return calendar != null && calendar.hasBookingsFrom(LocalDate.now().toEpochDay());
+    }
 
     // These methods format data specifically for the display columns.
 
@@ -55,25 +270,25 @@ public abstract class Vehicle implements Comparable<Vehicle>, Taxable {
         return this.getClass().getSimpleName();
     }
 
-    // Returns a formatted string like "$50.00/day" for the UI.
+    // Returns a formatted string like "$50.00/day" for the UI, built once so table cells don't format it again.
     public String getRateFormatted() {
-        return String.format("$%.2f/day", dailyRate);
+        return store.rateLabel(row);
     }
 
-    // Returns "Available" or "Rented" instead of "true/false" for better UX.
+    // Returns "Available" or "Rented" (for today's date) instead of "true/false" for better UX.
     public String getStatusFormatted() {
-        return isAvailable ? "Available" : "Rented";
+        return getIsAvailable() ? "Available" : "Rented";
     }
 
     // Comparable interface implementation
     @Override
     public int compareTo(Vehicle otherVehicle) {
-        return Double.compare(this.dailyRate, otherVehicle.dailyRate);
+        return Double.compare(getDailyRate(), otherVehicle.getDailyRate());
     }
 
     // Helper for debugging to print object state
     public String displayInfo() {
-        return("ID:" + vehicleId + "| Model: " + model + "| Rate: " + dailyRate);
+        return("ID:" + getVehicleId() + "| Model: " + getModel() + "| Rate: " + getDailyRate());
     }
 
     // ID generator.
@@ -81,4 +296,13 @@ public abstract class Vehicle implements Comparable<Vehicle>, Taxable {
     private static int getNextId() {
         return idCounter++;
     }
+
+    // Used by the DataManager when loading, so a vehicle keeps the ID it was saved with
+    // (bookings and journal records refer to it). Also makes sure new IDs never collide with it.
+    void restoreId(int id) {
+        int oldId = getVehicleId();
+        store.setId(row, id);
+        Registry.rekey(this, oldId);
+        if (id >= idCounter) idCounter = id + 1;
+    }
 }
\ No newline at end of file
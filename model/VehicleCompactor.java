@@ -0,0 +1,65 @@
+package model;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Cleans deleted vehicles (tombstones, see Vehicle.removeVehicle) out of Vehicle.allVehicles in the background.
+// Deleting a vehicle only marks it, which is O(1) and keeps every ID and booking reference as it was.
+// Walking the list to drop the marked ones is O(n), so it is done here in one go for many deletes:
+// every few minutes, or straight away once enough tombstones have piled up.
+public class VehicleCompactor {
+
+    // Tombstones that trigger a compaction right away, and how often it runs anyway.
+    private static final int THRESHOLD = 256;
+    private static final long PERIOD_MINUTES = 10;
+
+    private static final AtomicInteger tombstones = new AtomicInteger();
+    private static final AtomicBoolean queued = new AtomicBoolean();
+    private static ScheduledExecutorService executor;
+
+    // Starts the background compaction, called once the startup load is done.
+    public static synchronized void start() {
+        if (executor != null) return;
+        executor = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "vehicle-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleAtFixedRate(VehicleCompactor::compactIfNeeded, PERIOD_MINUTES, PERIOD_MINUTES, TimeUnit.MINUTES);
+        if (tombstones.get() >= THRESHOLD) requestCompaction();
+    }
+
+    // Called by Vehicle.removeVehicle for every new tombstone.
+    static void vehicleRemoved() {
+        if (tombstones.incrementAndGet() >= THRESHOLD) requestCompaction();
+    }
+
+    // Tombstones waiting for the next compaction.
+    public static int pending() {
+        return tombstones.get();
+    }
+
+    // Runs a compaction on the calling thread, returns how many tombstones were cleared out.
+    public static int compact() {
+        tombstones.set(0);
+        int cleared = Vehicle.compact();
+        if (cleared > 0) System.out.println("Compacted " + cleared + " removed vehicle(s)");
+        return cleared;
+    }
+
+    private static synchronized void requestCompaction() {
+        // Before start() (while loading) the tombstones just wait for the first compaction after it
+        if (executor == null || !queued.compareAndSet(false, true)) return;
+        executor.execute(() -> {
+            queued.set(false);
+            compact();
+        });
+    }
+
+    private static void compactIfNeeded() {
+        if (tombstones.get() > 0) compact();
+    }
+}
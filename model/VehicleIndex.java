@@ -0,0 +1,131 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+// Search index over the fleet, used by VehicleQuery.
+// Every vehicle gets a slot number, and the index keeps one rate-ordered map (daily rate -> vehicles) per vehicle type
+// (the per-type buckets), plus one for the whole fleet. The automatic / helmet filters read the FleetStore's flag column.
+// A query walks the matching bucket from the cheapest vehicle up and stops once it has its page,
+// so it never has to look at the whole fleet or sort it.
+// Vehicles are added by the subclass constructors and removed by Vehicle.removeVehicle().
+// The text search (VehicleSearchIndex) uses the same slot numbers and is updated from here.
+public class VehicleIndex {
+
+    private static final ArrayList<Vehicle> slots = new ArrayList<>();
+    private static final ArrayList<Integer> freeSlots = new ArrayList<>();
+    private static int size;
+
+    private static final TreeMap<Double, LinkedHashSet<Vehicle>> allByRate = new TreeMap<>();
+    private static final ArrayList<TreeMap<Double, LinkedHashSet<Vehicle>>> typeByRate = new ArrayList<>();
+
+    private static final int[] typeCounts = new int[VehicleType.values().length];
+
+    static {
+        for (int i = 0; i < VehicleType.values().length; i++) {
+            typeByRate.add(new TreeMap<>());
+        }
+    }
+
+    static void add(Vehicle vehicle) {
+        if (vehicle.indexSlot >= 0 || vehicle.isRemoved()) return;
+        if (freeSlots.isEmpty()) {
+            vehicle.indexSlot = slots.size();
+            slots.add(vehicle);
+        } else {
+            vehicle.indexSlot = freeSlots.remove(freeSlots.size() - 1);
+            slots.set(vehicle.indexSlot, vehicle);
+        }
+
+        size++;
+        allByRate.computeIfAbsent(vehicle.getDailyRate(), rate -> new LinkedHashSet<>()).add(vehicle);
+        typeByRate.get(vehicle.getVehicleType().ordinal())
+                .computeIfAbsent(vehicle.getDailyRate(), rate -> new LinkedHashSet<>()).add(vehicle);
+        VehicleSearchIndex.add(vehicle);
+        countChanged(vehicle.getVehicleType(), 1);
+    }
+
+    static void remove(Vehicle vehicle) {
+        int slot = vehicle.indexSlot;
+        if (slot < 0 || slots.get(slot) != vehicle) return;
+
+        size--;
+        removeFrom(allByRate, vehicle);
+        removeFrom(typeByRate.get(vehicle.getVehicleType().ordinal()), vehicle);
+        VehicleSearchIndex.remove(vehicle);
+
+        slots.set(slot, null);
+        freeSlots.add(slot);
+        vehicle.indexSlot = -1;
+        countChanged(vehicle.getVehicleType(), -1);
+    }
+
+    static void clear() {
+        for (Vehicle vehicle : slots) {
+            if (vehicle != null) vehicle.indexSlot = -1;
+        }
+        slots.clear();
+        freeSlots.clear();
+        size = 0;
+        allByRate.clear();
+        for (TreeMap<Double, LinkedHashSet<Vehicle>> bucket : typeByRate) bucket.clear();
+        VehicleSearchIndex.clear();
+        for (VehicleType type : VehicleType.values()) countChanged(type, -typeCounts[type.ordinal()]);
+    }
+
+    // Rate-ordered vehicles of one type, or of the whole fleet if type is null.
+    static NavigableMap<Double, LinkedHashSet<Vehicle>> byRate(VehicleType type) {
+        return type == null ? allByRate : typeByRate.get(type.ordinal());
+    }
+
+    private static void removeFrom(TreeMap<Double, LinkedHashSet<Vehicle>> bucket, Vehicle vehicle) {
+        LinkedHashSet<Vehicle> sameRate = bucket.get(vehicle.getDailyRate());
+        if (sameRate == null) return;
+        sameRate.remove(vehicle);
+        if (sameRate.isEmpty()) bucket.remove(vehicle.getDailyRate());
+    }
+
+    // Number of vehicles of that type in the fleet.
+    public static int count(VehicleType type) {
+        return typeCounts[type.ordinal()];
+    }
+
+    // Dynamic pricing works out occupancy per type, so it needs to know when a type's fleet size changes.
+    private static void countChanged(VehicleType type, int delta) {
+        typeCounts[type.ordinal()] += delta;
+        DynamicPricing.fleetChanged(type, typeCounts[type.ordinal()]);
+    }
+
+    // The vehicle in a slot, null if the slot is free (or out of range).
+    // The vehicle tables show their rows through this, as slot numbers (see UI.VehicleRows).
+    public static Vehicle at(int slot) {
+        return slot >= 0 && slot < slots.size() ? slots.get(slot) : null;
+    }
+
+    // The slot of an indexed vehicle, -1 if it isn't in the index (deleted).
+    public static int slotOf(Vehicle vehicle) {
+        return vehicle.indexSlot;
+    }
+
+    // Number of slots handed out so far, free ones included (slot numbers are below this).
+    public static int slotCount() {
+        return slots.size();
+    }
+
+    // The slots of the whole fleet cheapest first (same order as an unfiltered VehicleQuery),
+    // read straight off the rate buckets without making a list of the vehicles.
+    public static int[] slotsByRate() {
+        int[] result = new int[size];
+        int i = 0;
+        for (LinkedHashSet<Vehicle> sameRate : allByRate.values()) {
+            for (Vehicle vehicle : sameRate) result[i++] = vehicle.indexSlot;
+        }
+        return result;
+    }
+
+    public static int size() {
+        return size;
+    }
+}
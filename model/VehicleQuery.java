@@ -0,0 +1,100 @@
+package model;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NavigableMap;
+
+// Fleet search on top of the VehicleIndex.
+// Example: "cars available between two dates, automatic, at most $120/day, cheapest first, page 2":
+//     new VehicleQuery().availableBetween(d1, d2).type(VehicleType.CAR).automatic(true)
+//                       .maxRate(120).page(2, 20).run();
+// Every filter is optional, results are always sorted by daily rate.
+public class VehicleQuery {
+
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private VehicleType type;
+    private Boolean automatic;
+    private Boolean helmet;
+    private double maxRate = Double.MAX_VALUE;
+    private boolean descending;
+    private int page;
+    private int pageSize = Integer.MAX_VALUE;
+
+    // Only vehicles with no booking overlapping [start, end) (the end date is the return day).
+    public VehicleQuery availableBetween(LocalDate start, LocalDate end) {
+        this.startDate = start;
+        this.endDate = end;
+        return this;
+    }
+
+    public VehicleQuery type(VehicleType type) {
+        this.type = type;
+        return this;
+    }
+
+    // Cars only, filters on the transmission.
+    public VehicleQuery automatic(boolean automatic) {
+        this.automatic = automatic;
+        this.type = VehicleType.CAR;
+        return this;
+    }
+
+    // Bikes only, filters on the helmet.
+    public VehicleQuery helmetIncluded(boolean helmet) {
+        this.helmet = helmet;
+        this.type = VehicleType.BIKE;
+        return this;
+    }
+
+    public VehicleQuery maxRate(double maxRate) {
+        this.maxRate = maxRate;
+        return this;
+    }
+
+    // Most expensive first instead of cheapest first.
+    public VehicleQuery sortByRateDescending() {
+        this.descending = true;
+        return this;
+    }
+
+    // Pages start at 0.
+    public VehicleQuery page(int page, int pageSize) {
+        this.page = page;
+        this.pageSize = pageSize;
+        return this;
+    }
+
+    public List<Vehicle> run() {
+        List<Vehicle> results = new ArrayList<>(Math.min(pageSize, 256));
+
+        // Only walk the part of the bucket under the rate limit, in the requested order.
+        NavigableMap<Double, LinkedHashSet<Vehicle>> candidates = VehicleIndex.byRate(type).headMap(maxRate, true);
+        if (descending) candidates = candidates.descendingMap();
+        long skip = (long) page * pageSize;
+
+        for (LinkedHashSet<Vehicle> sameRate : candidates.values()) {
+            for (Vehicle vehicle : sameRate) {
+                if (!matches(vehicle)) continue;
+                if (skip > 0) {
+                    skip--;
+                    continue;
+                }
+                results.add(vehicle);
+                if (results.size() == pageSize) return results;
+            }
+        }
+        return results;
+    }
+
+    // The automatic and helmet filters read the flag column of the FleetStore (the type bucket already picked cars
+    // or bikes, so the flag means one or the other).
+    private boolean matches(Vehicle vehicle) {
+        if (automatic != null && vehicle.store.flag(vehicle.row) != automatic) return false;
+        if (helmet != null && vehicle.store.flag(vehicle.row) != helmet) return false;
+        if (startDate != null && endDate != null && !vehicle.isAvailableBetween(startDate, endDate)) return false;
+        return true;
+    }
+}
@@ -0,0 +1,168 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+
+// Type-ahead search over the fleet: finds vehicles whose model or licence plate contains the typed text
+// ("cor" finds "Toyota Corolla", "99" finds "BMW-999"), case-insensitive.
+//
+// It's an n-gram index: every piece of 1, 2 and 3 characters of a vehicle's model and licence points to the
+// vehicles that contain it (a sorted list of VehicleIndex slots). Searching for up to 3 characters is a single lookup.
+// For longer text we take the rarest 3 character piece of it and only check the vehicles on that list,
+// so a search looks at a handful of vehicles instead of the whole fleet.
+//
+// Kept up to date by VehicleIndex (which the vehicle constructors and Vehicle.removeVehicle() go through).
+public class VehicleSearchIndex {
+
+    private static final int MAX_GRAM = 3;
+
+    // Separates model and licence in a vehicle's search text, so a match can never span both
+    private static final char SEPARATOR = '\0';
+
+    private static final HashMap<String, Postings> grams = new HashMap<>();
+    // Lowercase "model\0licence" per slot, null for free slots
+    private static final ArrayList<String> texts = new ArrayList<>();
+
+    static synchronized void add(Vehicle vehicle) {
+        int slot = vehicle.indexSlot;
+        String text = searchText(vehicle);
+        while (texts.size() <= slot) texts.add(null);
+        texts.set(slot, text);
+        for (String gram : gramsOf(text)) {
+            grams.computeIfAbsent(gram, g -> new Postings()).add(slot);
+        }
+    }
+
+    static synchronized void remove(Vehicle vehicle) {
+        int slot = vehicle.indexSlot;
+        String text = texts.get(slot);
+        if (text == null) return;
+        texts.set(slot, null);
+        for (String gram : gramsOf(text)) {
+            Postings postings = grams.get(gram);
+            if (postings == null) continue;
+            postings.remove(slot);
+            if (postings.size == 0) grams.remove(gram);
+        }
+    }
+
+    static synchronized void clear() {
+        grams.clear();
+        texts.clear();
+    }
+
+    // Vehicles whose model or licence contains 'query', the 'limit' cheapest of them, cheapest first.
+    // Every match counts before the list is cut, so a short query doesn't just return whichever vehicles came first
+    // in the fleet. Few matches are ranked by sorting their rates as plain numbers (FleetStore.order), equal rates in
+    // slot order.
+    // An empty query matches nothing, the callers show the whole fleet in that case.
+    public static synchronized List<Vehicle> search(String query, int limit) {
+        List<Vehicle> found = new ArrayList<>();
+        String text = normalize(query);
+        if (text.isEmpty()) return found;
+
+        Postings candidates = rarest(text);
+        if (candidates == null) return found;
+        // A short query matches a big part of the fleet: walking the fleet cheapest first (VehicleIndex) and keeping the
+        // matches finds the cheapest ones after a few times 'limit' vehicles, instead of ranking all the matches.
+        if ((long) candidates.size * candidates.size > (long) limit * VehicleIndex.size()) {
+            for (LinkedHashSet<Vehicle> sameRate : VehicleIndex.byRate(null).values()) {
+                for (Vehicle vehicle : sameRate) {
+                    if (!texts.get(vehicle.indexSlot).contains(text)) continue;
+                    found.add(vehicle);
+                    if (found.size() == limit) return found;
+                }
+            }
+            return found;
+        }
+
+        // Up to 3 characters the list is exactly the matches, longer text still has to be checked
+        boolean check = text.length() > MAX_GRAM;
+        int[] matches = new int[candidates.size];
+        long[] rates = new long[candidates.size];
+        int count = 0;
+        for (int i = 0; i < candidates.size; i++) {
+            int slot = candidates.slots[i];
+            if (check && !texts.get(slot).contains(text)) continue;
+            matches[count] = slot;
+            rates[count] = VehicleIndex.at(slot).getRateCents();
+            count++;
+        }
+        int[] order = FleetStore.order(Arrays.copyOf(rates, count));
+        for (int i = 0; i < Math.min(limit, count); i++) {
+            found.add(VehicleIndex.at(matches[order[i]]));
+        }
+        return found;
+    }
+
+    // True if this vehicle would be found by 'query', used to keep a search result up to date.
+    public static boolean matches(Vehicle vehicle, String query) {
+        String text = normalize(query);
+        return !text.isEmpty() && searchText(vehicle).contains(text);
+    }
+
+    // Number of different pieces in the index, to see how big it is.
+    public static synchronized int gramCount() {
+        return grams.size();
+    }
+
+    // The shortest list that every match has to be on, null if some piece of the text isn't in the index at all.
+    private static Postings rarest(String text) {
+        if (text.length() <= MAX_GRAM) return grams.get(text);
+        Postings best = null;
+        for (int i = 0; i + MAX_GRAM <= text.length(); i++) {
+            Postings postings = grams.get(text.substring(i, i + MAX_GRAM));
+            if (postings == null) return null;
+            if (best == null || postings.size < best.size) best = postings;
+        }
+        return best;
+    }
+
+    private static String normalize(String query) {
+        return query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String searchText(Vehicle vehicle) {
+        return (vehicle.getModel() + SEPARATOR + vehicle.getLicenseNumber()).toLowerCase(Locale.ROOT);
+    }
+
+    // Every different piece of 1 to MAX_GRAM characters that doesn't cross the separator.
+    private static HashSet<String> gramsOf(String text) {
+        HashSet<String> result = new HashSet<>();
+        for (int start = 0; start < text.length(); start++) {
+            for (int end = start + 1; end <= Math.min(text.length(), start + MAX_GRAM); end++) {
+                if (text.charAt(end - 1) == SEPARATOR) break;
+                result.add(text.substring(start, end));
+            }
+        }
+        return result;
+    }
+
+    // Sorted list of slots, kept as a plain int array (a List<Integer> would box every entry).
+    private static class Postings {
+        int[] slots = new int[4];
+        int size;
+
+        void add(int slot) {
+            int at = Arrays.binarySearch(slots, 0, size, slot);
+            if (at >= 0) return;
+            at = -at - 1;
+            if (size == slots.length) slots = Arrays.copyOf(slots, size * 2);
+            System.arraycopy(slots, at, slots, at + 1, size - at);
+            slots[at] = slot;
+            size++;
+        }
+
+        void remove(int slot) {
+            int at = Arrays.binarySearch(slots, 0, size, slot);
+            if (at < 0) return;
+            System.arraycopy(slots, at + 1, slots, at, size - at - 1);
+            size--;
+        }
+    }
+}
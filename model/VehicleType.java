@@ -0,0 +1,28 @@
+package model;
+
+// The kinds of vehicles we rent out.
+// The ordinal is used as a compact type code by the indexes (one bucket per type).
+public enum VehicleType {
+    CAR("Car"),
+    BIKE("Bike"),
+    VAN("Van");
+
+    private final String label;
+
+    VehicleType(String label) {
+        this.label = label;
+    }
+
+    // The name shown in the UI and saved in the files ("Car", "Bike", "Van").
+    public String getLabel() {
+        return label;
+    }
+
+    // Finds a type from its label, returns null if there is none.
+    public static VehicleType fromLabel(String label) {
+        for (VehicleType type : values()) {
+            if (type.label.equals(label)) return type;
+        }
+        return null;
+    }
+}